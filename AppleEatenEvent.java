@@ -0,0 +1,46 @@
+package Project;
+
+// Raised by GameEngine on the tick the snake's head reaches the apple, after the apple
+// has been respawned. Carries where the apple was eaten and where it went next.
+public class AppleEatenEvent {
+    private final long tick;
+    private final float eatenX;
+    private final float eatenZ;
+    private final float nextX;
+    private final float nextZ;
+    private final int applesEaten;
+
+    public AppleEatenEvent(long tick, float eatenX, float eatenZ, float nextX, float nextZ, int applesEaten) {
+        this.tick = tick;
+        this.eatenX = eatenX;
+        this.eatenZ = eatenZ;
+        this.nextX = nextX;
+        this.nextZ = nextZ;
+        this.applesEaten = applesEaten;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public float getEatenX() {
+        return eatenX;
+    }
+
+    public float getEatenZ() {
+        return eatenZ;
+    }
+
+    public float getNextX() {
+        return nextX;
+    }
+
+    public float getNextZ() {
+        return nextZ;
+    }
+
+    // Total apples eaten this round, including this one.
+    public int getApplesEaten() {
+        return applesEaten;
+    }
+}
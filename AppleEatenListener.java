@@ -0,0 +1,7 @@
+package Project;
+
+// Subscriber for AppleEatenEvent. Called on the simulation thread, inside the tick that
+// detected the collision, so implementations should return quickly.
+public interface AppleEatenListener {
+    void appleEaten(AppleEatenEvent event);
+}
@@ -0,0 +1,228 @@
+package Project;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Size and wall layout of the play area. The engine's bounds, occupancy grid and apple
+// spawning, and the ground and wall geometry in the scene, are all derived from one of
+// these. The arena is centred on the origin and measured in grid cells.
+//
+//   -Dsnake.arenaCells=250x250  -Dsnake.arenaLayout=pillars
+public class ArenaConfig {
+    public enum Layout { OPEN, PILLARS }
+
+    // The original 10 x 10 unit arena with 0.2-unit cells
+    public static final ArenaConfig DEFAULT = new ArenaConfig(50, 50, 0.2f, Layout.OPEN);
+
+    // Apples spawn at least this many cells inside the border, which leaves a spawn area
+    // of at least 2 x 2 cells in the smallest arena
+    private static final int SPAWN_MARGIN_CELLS = 5;
+    public static final int MIN_CELLS = 2 * SPAWN_MARGIN_CELLS + 2;
+
+    // Where the first apple goes, as in the original game
+    private static final float START_APPLE_X = 2f;
+    private static final float START_APPLE_Z = 1f;
+
+    private final int cols;
+    private final int rows;
+    private final float cellSize;
+    private final Layout layout;
+    private final List<Wall> walls;
+    private final float startAppleX;
+    private final float startAppleZ;
+
+    public ArenaConfig(int cols, int rows, float cellSize, Layout layout) {
+        if (cols < MIN_CELLS || rows < MIN_CELLS) {
+            throw new IllegalArgumentException("Arena must be at least " + MIN_CELLS + "x" + MIN_CELLS
+                    + " cells: " + cols + "x" + rows);
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.cellSize = cellSize;
+        this.layout = layout;
+        this.walls = Collections.unmodifiableList(buildWalls());
+
+        // The first apple: the original spot, pulled into the spawn area on arenas too
+        // small to hold it. When that lands in a wall, or on the snake at the origin, the
+        // apple goes to the centre of the nearest cell that is neither.
+        float appleX = Math.min(START_APPLE_X, getSpawnHalfWidth());
+        float appleZ = Math.min(START_APPLE_Z, getSpawnHalfDepth());
+        OccupancyGrid grid = OccupancyGrid.forArena(this);
+        int cell = grid.cellOf(appleX, appleZ);
+        int start = grid.cellOf(0f, 0f);
+        if (grid.isWall(cell) || cell == start) {
+            cell = nearestOpenCell(grid, cell, start);
+            appleX = grid.cellCenterX(cell);
+            appleZ = grid.cellCenterZ(cell);
+        }
+        startAppleX = appleX;
+        startAppleZ = appleZ;
+    }
+
+    // The arena from -Dsnake.arenaCells and -Dsnake.arenaLayout, or DEFAULT.
+    public static ArenaConfig fromSystemProperties() {
+        String cells = System.getProperty("snake.arenaCells");
+        String layout = System.getProperty("snake.arenaLayout");
+        if (cells == null && layout == null) {
+            return DEFAULT;
+        }
+        int cols = DEFAULT.cols;
+        int rows = DEFAULT.rows;
+        if (cells != null) {
+            String[] parts = cells.toLowerCase().split("x");
+            cols = Integer.parseInt(parts[0].trim());
+            rows = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : cols;
+        }
+        Layout wallLayout = layout == null ? Layout.OPEN : Layout.valueOf(layout.trim().toUpperCase());
+        return new ArenaConfig(cols, rows, DEFAULT.cellSize, wallLayout);
+    }
+
+    // Interior walls for the layout, in world units. The border is implied by the size.
+    private List<Wall> buildWalls() {
+        List<Wall> result = new ArrayList<>();
+        if (layout == Layout.PILLARS) {
+            // A square block in the middle of each quadrant, a tenth of the arena wide
+            float halfX = getHalfWidth() / 2;
+            float halfZ = getHalfDepth() / 2;
+            float size = snap(Math.max(getHalfWidth(), getHalfDepth()) / 10);
+            for (int sx = -1; sx <= 1; sx += 2) {
+                for (int sz = -1; sz <= 1; sz += 2) {
+                    float cx = snap(sx * halfX);
+                    float cz = snap(sz * halfZ);
+                    result.add(new Wall(cx - size, cz - size, cx + size, cz + size));
+                }
+            }
+        }
+        return result;
+    }
+
+    // The spawn-area cell closest to target that is not a wall and not the start cell,
+    // searching outwards one ring of cells at a time.
+    private int nearestOpenCell(OccupancyGrid grid, int target, int start) {
+        int lo = grid.cellOf(-getSpawnHalfWidth() + cellSize / 2, -getSpawnHalfDepth() + cellSize / 2);
+        int hi = grid.cellOf(getSpawnHalfWidth() - cellSize / 2, getSpawnHalfDepth() - cellSize / 2);
+        int targetCol = target % cols;
+        int targetRow = target / cols;
+        for (int ring = 1; ring < Math.max(cols, rows); ring++) {
+            int best = -1;
+            int bestDistance = Integer.MAX_VALUE;
+            int rowLo = Math.max(lo / cols, targetRow - ring);
+            int rowHi = Math.min(hi / cols, targetRow + ring);
+            int colLo = Math.max(lo % cols, targetCol - ring);
+            int colHi = Math.min(hi % cols, targetCol + ring);
+            for (int row = rowLo; row <= rowHi; row++) {
+                for (int col = colLo; col <= colHi; col++) {
+                    int dc = col - targetCol;
+                    int dr = row - targetRow;
+                    int cell = row * cols + col;
+                    if (Math.max(Math.abs(dc), Math.abs(dr)) != ring || grid.isWall(cell) || cell == start) {
+                        continue;
+                    }
+                    if (dc * dc + dr * dr < bestDistance) {
+                        bestDistance = dc * dc + dr * dr;
+                        best = cell;
+                    }
+                }
+            }
+            if (best >= 0) {
+                return best;
+            }
+        }
+        throw new IllegalArgumentException("No open cell for the first apple in a " + cols + "x" + rows
+                + " " + layout + " arena");
+    }
+
+    // The cell OccupancyGrid.forArena's grid puts a world position in, for code that
+    // needs cells but not the grid, such as a client predicting its own snake.
+    public int cellOf(float x, float z) {
+        return OccupancyGrid.cellOf(x, z, -getHalfWidth(), -getHalfDepth(), cols, rows, cellSize);
+    }
+
+    // Round to a cell boundary so walls cover whole cells.
+    private float snap(float value) {
+        return Math.round(value / cellSize) * cellSize;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    public float getHalfWidth() {
+        return cols * cellSize / 2;
+    }
+
+    public float getHalfDepth() {
+        return rows * cellSize / 2;
+    }
+
+    public float getSpawnHalfWidth() {
+        return getHalfWidth() - SPAWN_MARGIN_CELLS * cellSize;
+    }
+
+    public float getSpawnHalfDepth() {
+        return getHalfDepth() - SPAWN_MARGIN_CELLS * cellSize;
+    }
+
+    // Where the first apple of a game goes, clear of walls and of the snake's start.
+    public float getStartAppleX() {
+        return startAppleX;
+    }
+
+    public float getStartAppleZ() {
+        return startAppleZ;
+    }
+
+    public List<Wall> getWalls() {
+        return walls;
+    }
+
+    // Radius that takes in the whole arena with room for the camera, for the scheduling
+    // and influencing bounds of behaviors, lights and backgrounds.
+    public double getSceneRadius() {
+        return Math.max(100, 2 * Math.hypot(getHalfWidth(), getHalfDepth()));
+    }
+
+    // Axis-aligned interior wall block on the floor plan.
+    public static class Wall {
+        private final float minX;
+        private final float minZ;
+        private final float maxX;
+        private final float maxZ;
+
+        public Wall(float minX, float minZ, float maxX, float maxZ) {
+            this.minX = minX;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxZ = maxZ;
+        }
+
+        public float getMinX() {
+            return minX;
+        }
+
+        public float getMinZ() {
+            return minZ;
+        }
+
+        public float getMaxX() {
+            return maxX;
+        }
+
+        public float getMaxZ() {
+            return maxZ;
+        }
+    }
+}
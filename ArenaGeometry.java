@@ -0,0 +1,131 @@
+package Project;
+
+// Vertex data for an arena's ground and walls, built as plain arrays so GamePanel can
+// hand them to Java3D in a single QuadArray each and the cost can be measured without a
+// display. The ground is a grid of GROUND_TILE_SIZE tiles with the map texture repeated
+// once per tile, so the texture keeps its scale on any arena size. All walls, border and
+// interior, are boxes batched into one colour-per-vertex quad array.
+public class ArenaGeometry {
+    public static final float GROUND_Y = -0.5f;
+    public static final float GROUND_TILE_SIZE = 10f;
+
+    private static final float WALL_HALF_THICKNESS = 0.05f;
+    private static final float WALL_HALF_HEIGHT = 0.5f;
+    private static final float WALL_Y = -0.45f;
+    private static final int VERTS_PER_BOX = 24;
+
+    // Corners of each box face, counterclockwise from outside.
+    // Corner bits: 1 = +x, 2 = +y, 4 = +z.
+    private static final byte[] BOX_CORNERS = {
+        1, 3, 7, 5,   4, 6, 2, 0,   // +x, -x
+        6, 7, 3, 2,   0, 1, 5, 4,   // +y, -y
+        4, 5, 7, 6,   2, 3, 1, 0    // +z, -z
+    };
+
+    private static final float[] LEFT_COLOR = {1f, 0f, 0f};    // Red
+    private static final float[] RIGHT_COLOR = {0f, 1f, 0f};   // Green
+    private static final float[] TOP_COLOR = {0f, 0f, 1f};     // Blue
+    private static final float[] BOTTOM_COLOR = {1f, 1f, 0f};  // Yellow
+    private static final float[] INTERIOR_COLOR = {0.6f, 0.6f, 0.6f};
+
+    private final float[] groundCoords;
+    private final float[] groundTexCoords;
+    private final float[] wallCoords;
+    private final float[] wallColors;
+
+    public ArenaGeometry(ArenaConfig arena) {
+        float halfWidth = arena.getHalfWidth();
+        float halfDepth = arena.getHalfDepth();
+
+        int tilesX = (int) Math.ceil(2 * halfWidth / GROUND_TILE_SIZE);
+        int tilesZ = (int) Math.ceil(2 * halfDepth / GROUND_TILE_SIZE);
+        groundCoords = new float[tilesX * tilesZ * 4 * 3];
+        groundTexCoords = new float[tilesX * tilesZ * 4 * 2];
+        int c = 0;
+        int t = 0;
+        for (int tz = 0; tz < tilesZ; tz++) {
+            float minZ = -halfDepth + tz * GROUND_TILE_SIZE;
+            float maxZ = Math.min(minZ + GROUND_TILE_SIZE, halfDepth);
+            float v = (maxZ - minZ) / GROUND_TILE_SIZE;
+            for (int tx = 0; tx < tilesX; tx++) {
+                float minX = -halfWidth + tx * GROUND_TILE_SIZE;
+                float maxX = Math.min(minX + GROUND_TILE_SIZE, halfWidth);
+                float u = (maxX - minX) / GROUND_TILE_SIZE;
+                // Same corner order and texture orientation as the original single quad
+                c = put3(groundCoords, c, minX, GROUND_Y, maxZ);
+                c = put3(groundCoords, c, maxX, GROUND_Y, maxZ);
+                c = put3(groundCoords, c, maxX, GROUND_Y, minZ);
+                c = put3(groundCoords, c, minX, GROUND_Y, minZ);
+                t = put2(groundTexCoords, t, 0, 0);
+                t = put2(groundTexCoords, t, u, 0);
+                t = put2(groundTexCoords, t, u, v);
+                t = put2(groundTexCoords, t, 0, v);
+            }
+        }
+
+        int boxes = 4 + arena.getWalls().size();
+        wallCoords = new float[boxes * VERTS_PER_BOX * 3];
+        wallColors = new float[boxes * VERTS_PER_BOX * 3];
+        int box = 0;
+        box = putBox(box, -halfWidth, 0f, WALL_HALF_THICKNESS, halfDepth, WALL_HALF_HEIGHT, LEFT_COLOR);
+        box = putBox(box, halfWidth, 0f, WALL_HALF_THICKNESS, halfDepth, WALL_HALF_HEIGHT, RIGHT_COLOR);
+        box = putBox(box, 0f, halfDepth, halfWidth, WALL_HALF_THICKNESS, WALL_HALF_HEIGHT, TOP_COLOR);
+        box = putBox(box, 0f, -halfDepth, halfWidth, WALL_HALF_THICKNESS, WALL_HALF_HEIGHT, BOTTOM_COLOR);
+        for (ArenaConfig.Wall wall : arena.getWalls()) {
+            box = putBox(box, (wall.getMinX() + wall.getMaxX()) / 2, (wall.getMinZ() + wall.getMaxZ()) / 2,
+                    (wall.getMaxX() - wall.getMinX()) / 2, (wall.getMaxZ() - wall.getMinZ()) / 2,
+                    WALL_HALF_HEIGHT, INTERIOR_COLOR);
+        }
+    }
+
+    private int putBox(int box, float cx, float cz, float hx, float hz, float hy, float[] color) {
+        int i = box * VERTS_PER_BOX * 3;
+        for (int v = 0; v < VERTS_PER_BOX; v++) {
+            int corner = BOX_CORNERS[v];
+            wallColors[i] = color[0];
+            wallColors[i + 1] = color[1];
+            wallColors[i + 2] = color[2];
+            wallCoords[i++] = cx + ((corner & 1) != 0 ? hx : -hx);
+            wallCoords[i++] = WALL_Y + ((corner & 2) != 0 ? hy : -hy);
+            wallCoords[i++] = cz + ((corner & 4) != 0 ? hz : -hz);
+        }
+        return box + 1;
+    }
+
+    private static int put3(float[] array, int i, float x, float y, float z) {
+        array[i] = x;
+        array[i + 1] = y;
+        array[i + 2] = z;
+        return i + 3;
+    }
+
+    private static int put2(float[] array, int i, float u, float v) {
+        array[i] = u;
+        array[i + 1] = v;
+        return i + 2;
+    }
+
+    public int getGroundVertexCount() {
+        return groundCoords.length / 3;
+    }
+
+    public float[] getGroundCoords() {
+        return groundCoords;
+    }
+
+    public float[] getGroundTexCoords() {
+        return groundTexCoords;
+    }
+
+    public int getWallVertexCount() {
+        return wallCoords.length / 3;
+    }
+
+    public float[] getWallCoords() {
+        return wallCoords;
+    }
+
+    public float[] getWallColors() {
+        return wallColors;
+    }
+}
@@ -0,0 +1,114 @@
+package Project;
+
+import javax.sound.sampled.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Sound playback on a dedicated thread. Every registered sound is decoded once, when the
+// thread starts, and opened into a small pool of Clips that are rewound and reused, so
+// playing a sound does no file I/O, decoding or line allocation. play() only queues the
+// request and never blocks the caller.
+public class AudioEngine {
+    private static final int CLIPS_PER_SOUND = 4; // Overlapping plays of the same sound
+    private static final int QUEUE_CAPACITY = 32;
+
+    private final String[] soundNames;
+    private final HashMap<String, ClipPool> pools = new HashMap<>();
+    private final ArrayBlockingQueue<String> requests = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private Thread audioThread;
+    private volatile boolean running;
+
+    public AudioEngine(String... soundNames) {
+        this.soundNames = soundNames;
+    }
+
+    public void start() {
+        running = true;
+        audioThread = new Thread(this::run, "audio");
+        audioThread.setDaemon(true);
+        audioThread.start();
+    }
+
+    // Queue a sound by file name (relative to resources/). Requests are dropped if the
+    // audio thread has fallen behind by a full queue.
+    public void play(String name) {
+        requests.offer(name);
+    }
+
+    public void shutdown() {
+        running = false;
+        if (audioThread != null) {
+            audioThread.interrupt();
+        }
+    }
+
+    private void run() {
+        for (String name : soundNames) {
+            load(name);
+        }
+        try {
+            while (running) {
+                playNow(requests.take());
+            }
+        } catch (InterruptedException e) {
+            // Shutting down
+        }
+        for (ClipPool pool : pools.values()) {
+            for (Clip clip : pool.clips) {
+                clip.close();
+            }
+        }
+    }
+
+    private void load(String name) {
+        String filename = "resources/" + name;
+        try (AudioInputStream audioStream = AudioSystem.getAudioInputStream(new File(filename))) {
+            AudioFormat format = audioStream.getFormat();
+            byte[] data = audioStream.readAllBytes();  // Decoded once, shared by the whole pool
+
+            Clip[] clips = new Clip[CLIPS_PER_SOUND];
+            for (int i = 0; i < clips.length; i++) {
+                clips[i] = AudioSystem.getClip();
+                clips[i].open(format, data, 0, data.length);
+            }
+            pools.put(name, new ClipPool(clips));
+        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException | IllegalArgumentException e) {
+            e.printStackTrace();
+            System.out.println("Cannot load audio file: " + filename);
+        }
+    }
+
+    private void playNow(String name) {
+        ClipPool pool = pools.get(name);
+        if (pool == null) {
+            return;  // Unknown or failed to load; already reported at startup
+        }
+        // Prefer an idle clip; if all are busy, restart the one used longest ago
+        Clip clip = null;
+        for (int i = 0; i < pool.clips.length; i++) {
+            Clip candidate = pool.clips[(pool.next + i) % pool.clips.length];
+            if (!candidate.isRunning()) {
+                clip = candidate;
+                break;
+            }
+        }
+        if (clip == null) {
+            clip = pool.clips[pool.next];
+            clip.stop();
+        }
+        pool.next = (pool.next + 1) % pool.clips.length;
+        clip.setFramePosition(0);
+        clip.start();
+    }
+
+    private static class ClipPool {
+        private final Clip[] clips;
+        private int next;
+
+        ClipPool(Clip[] clips) {
+            this.clips = clips;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package Project;
+
+import org.jogamp.java3d.Transform3D;
+import org.jogamp.vecmath.Matrix3f;
+import org.jogamp.vecmath.Point3d;
+import org.jogamp.vecmath.Vector3d;
+import org.jogamp.vecmath.Vector3f;
+
+import java.awt.event.KeyEvent;
+
+// Camera arithmetic for the two camera modes, kept apart from the Java3D behaviors that
+// apply it so it runs without a display. Works on plain Transform3D values with scratch
+// objects owned here, so neither a key press nor a followed frame allocates.
+public class CameraRig {
+    private static final float MOVEMENT_SPEED = 0.1f;
+    // Hard-mode camera: behind the snake by 1.5 units and above it by 0.5
+    private static final Vector3f FOLLOW_OFFSET = new Vector3f(0f, 0.5f, 1.5f);
+    private static final Vector3d UP = new Vector3d(0, 1, 0);
+
+    private final Vector3f translation = new Vector3f();
+    private final Matrix3f rotation = new Matrix3f();
+    private final Vector3f forward = new Vector3f();
+    private final Vector3f followPos = new Vector3f();
+    private final Transform3D followRotation = new Transform3D();
+    private final Point3d eye = new Point3d();
+    private final Point3d center = new Point3d();
+
+    // Apply one key press to the free camera: WASD pans, Z and X move along the view
+    // direction. Returns false, leaving the transform alone, for any other key.
+    public boolean keyStep(Transform3D camera, int keyCode) {
+        camera.get(translation); // Get current camera position
+
+        // WASD movement logic (for directional movement)
+        if (keyCode == KeyEvent.VK_W) {
+            translation.z -= MOVEMENT_SPEED; // Move forward
+        } else if (keyCode == KeyEvent.VK_S) {
+            translation.z += MOVEMENT_SPEED; // Move backward
+        } else if (keyCode == KeyEvent.VK_A) {
+            translation.x -= MOVEMENT_SPEED; // Move left
+        } else if (keyCode == KeyEvent.VK_D) {
+            translation.x += MOVEMENT_SPEED; // Move right
+        }
+
+        // Zoom in (Z key) -- move the camera forward along its view direction
+        else if (keyCode == KeyEvent.VK_Z) {
+            camera.getRotationScale(rotation);
+            // The camera looks down its local negative Z, the rotation's third column
+            rotation.getColumn(2, forward);
+            translation.sub(forward); // Move closer to the scene
+        }
+        // Zoom out (X key) -- move the camera backward along its view direction
+        else if (keyCode == KeyEvent.VK_X) {
+            camera.getRotationScale(rotation);
+            rotation.getColumn(2, forward);
+            translation.add(forward); // Move away from the scene
+        } else {
+            return false;
+        }
+
+        camera.setTranslation(translation);
+        return true;
+    }
+
+    // Set viewTransform to the first-person view of a snake at snakePosition heading
+    // along the normalised direction.
+    public void follow(Vector3f snakePosition, Vector3f direction, Transform3D viewTransform) {
+        // Camera position relative to the snake
+        followPos.set(snakePosition);
+        followPos.add(direction);  // Adjust position based on snake’s forward direction
+        followPos.add(FOLLOW_OFFSET);  // Add the offset for positioning the camera behind the snake
+        viewTransform.setTranslation(followPos);
+
+        // Apply the snake's rotation to the camera
+        followRotation.rotY(Math.atan2(direction.z, direction.x));
+        viewTransform.mul(followRotation);
+
+        // Set the camera to always look at the snake's position
+        eye.set(snakePosition.x, snakePosition.y, snakePosition.z);  // Focus on the snake
+        center.set(snakePosition.x, snakePosition.y, snakePosition.z - 1);  // Look slightly in front of the snake
+        viewTransform.lookAt(eye, center, UP);  // Camera's up vector is along the Y-axis
+    }
+}
@@ -0,0 +1,102 @@
+package Project;
+
+// The cells a snake covers, from tail to head, each with the number of body segments in
+// it. Stored as a ring addressed by sequence number like SnakeBody, so the head gains a
+// cell and the tail loses one without shifting anything. The server keeps one per snake
+// to work out which cells changed in a tick; clients rebuild them from the deltas.
+public class CellTrail {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] cells = new int[INITIAL_CAPACITY];
+    private int[] segments = new int[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int headSeq;
+    private int tailSeq;
+
+    public CellTrail(int cell) {
+        reset(cell);
+    }
+
+    // Shrink to one cell holding one segment.
+    public void reset(int cell) {
+        headSeq = 0;
+        tailSeq = 0;
+        cells[0] = cell;
+        segments[0] = 1;
+    }
+
+    // A new head cell with one segment in it.
+    public void pushHead(int cell) {
+        if (length() == cells.length) {
+            grow();
+        }
+        headSeq++;
+        cells[headSeq & mask] = cell;
+        segments[headSeq & mask] = 1;
+    }
+
+    // Another segment in the head cell.
+    public void addHeadSegment() {
+        segments[headSeq & mask]++;
+    }
+
+    // More segments in the tail cell, as when the snake grows.
+    public void addTailSegments(int count) {
+        segments[tailSeq & mask] += count;
+    }
+
+    // Take count segments off the tail. Returns how many cells emptied and were dropped;
+    // the head cell is never dropped.
+    public int removeTailSegments(int count) {
+        int dropped = 0;
+        while (count > 0) {
+            int slot = tailSeq & mask;
+            int taken = Math.min(count, segments[slot]);
+            segments[slot] -= taken;
+            count -= taken;
+            if (segments[slot] == 0 && tailSeq != headSeq) {
+                tailSeq++;
+                dropped++;
+            } else {
+                break;
+            }
+        }
+        return dropped;
+    }
+
+    // Drop count cells off the tail, keeping at least the head cell.
+    public void removeTailCells(int count) {
+        tailSeq = Math.min(tailSeq + count, headSeq);
+    }
+
+    private void grow() {
+        int newCapacity = cells.length << 1;
+        int[] newCells = new int[newCapacity];
+        int[] newSegments = new int[newCapacity];
+        int newMask = newCapacity - 1;
+        for (int seq = tailSeq; seq != headSeq + 1; seq++) {
+            newCells[seq & newMask] = cells[seq & mask];
+            newSegments[seq & newMask] = segments[seq & mask];
+        }
+        cells = newCells;
+        segments = newSegments;
+        mask = newMask;
+    }
+
+    public int length() {
+        return headSeq - tailSeq + 1;
+    }
+
+    // The i-th cell counting from the tail.
+    public int getCell(int i) {
+        return cells[(tailSeq + i) & mask];
+    }
+
+    public int getHeadCell() {
+        return cells[headSeq & mask];
+    }
+
+    public int getTailCell() {
+        return cells[tailSeq & mask];
+    }
+}
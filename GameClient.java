@@ -0,0 +1,224 @@
+package Project;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+// Client end of a GameServer connection over a non-blocking socket. poll() reads
+// whatever has arrived and applies every complete frame to the RemoteWorld; turns are
+// queued with queueTurn() and go out together, as one INPUT frame, on flushInputs().
+// With prediction on, the first ACK starts a PredictedSnake, turn() applies turns to it at
+// once, and every later ACK reconciles it with the server.
+// Not thread-safe: one thread polls, queues and flushes.
+public class GameClient {
+    private static final int MAX_BATCH = 64;
+
+    private final SocketChannel channel;
+    private ByteBuffer in = ByteBuffer.allocate(1 << 16);
+    private ByteBuffer out = ByteBuffer.allocate(256);
+    private RemoteWorld world; // Built from the HELLO frame
+    private int snakeId = -1;
+    private final byte[] pendingTurns = new byte[MAX_BATCH];
+    private final long[] pendingTicks = new long[MAX_BATCH];
+    private int pendingCount;
+    private int nextInputSeq;
+    private long bytesReceived;
+    private boolean predicting;
+    private PredictedSnake prediction; // Created by the first ACK when predicting
+    private final TurnHold ackHold = new TurnHold(); // The server's, as of the last ACK
+
+    public GameClient(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+    }
+
+    public static GameClient connect(InetSocketAddress address) throws IOException {
+        return new GameClient(SocketChannel.open(address));
+    }
+
+    // Read and apply everything that has arrived. Returns the number of frames applied,
+    // or -1 once the server has closed the connection.
+    public int poll() throws IOException {
+        int read = channel.read(in);
+        if (read < 0) {
+            return -1;
+        }
+        bytesReceived += read;
+        in.flip();
+        int frames = 0;
+        while (in.remaining() >= 4) {
+            int start = in.position();
+            int length = in.getInt(start);
+            if (length < 1 || length > NetProtocol.MAX_FRAME) {
+                throw new IOException("Bad frame length " + length);
+            }
+            if (in.remaining() < 4 + length) {
+                break;
+            }
+            // Each frame is parsed from a view bounded by its length
+            byte type = in.get(start + 4);
+            ByteBuffer frame = in.slice(start + NetProtocol.HEADER_SIZE, length - 1);
+            try {
+                if (type == NetProtocol.HELLO) {
+                    readHello(frame);
+                } else if (type == NetProtocol.ACK) {
+                    readAck(frame);
+                } else if (world != null) {
+                    world.apply(type, frame);
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("Bad frame of type " + type + " from server", e);
+            }
+            in.position(start + 4 + length);
+            frames++;
+        }
+        in.compact();
+        // A frame bigger than the buffer: make room for the rest of it
+        if (!in.hasRemaining()) {
+            in = NetProtocol.ensureRoom(in, in.capacity());
+        }
+        return frames;
+    }
+
+    private void readHello(ByteBuffer frame) throws IOException {
+        int id = NetProtocol.getVarInt(frame);
+        int cols = NetProtocol.getVarInt(frame);
+        int rows = NetProtocol.getVarInt(frame);
+        float cellSize = frame.getFloat();
+        int layout = frame.get();
+        int snakes = NetProtocol.getVarInt(frame);
+        int apples = NetProtocol.getVarInt(frame);
+        if (layout < 0 || layout >= ArenaConfig.Layout.values().length
+                || !(cellSize > 0) || snakes < 1 || id < 0 || id >= snakes || apples < 0) {
+            throw new IOException("Bad HELLO from server");
+        }
+        // ArenaConfig rejects sizes it can't lay out
+        ArenaConfig arena = new ArenaConfig(cols, rows, cellSize, ArenaConfig.Layout.values()[layout]);
+        long cells = (long) arena.getCols() * arena.getRows();
+        if (snakes > cells || apples > cells) {
+            throw new IOException("Bad HELLO from server");
+        }
+        snakeId = id;
+        world = new RemoteWorld(arena, snakes, apples);
+    }
+
+    private void readAck(ByteBuffer frame) throws IOException {
+        long tick = NetProtocol.getVarLong(frame);
+        int resolved = NetProtocol.getVarInt(frame);
+        int flags = frame.get();
+        boolean respawned = (flags & NetProtocol.ACK_RESPAWNED) != 0;
+        float headX = frame.getFloat();
+        float headZ = frame.getFloat();
+        float dirX = frame.getFloat();
+        float dirZ = frame.getFloat();
+        ackHold.reset();
+        if ((flags & NetProtocol.ACK_TURNED) != 0) {
+            long turnTick = NetProtocol.getVarLong(frame);
+            int turnCell = NetProtocol.getVarInt(frame);
+            ArenaConfig arena = world == null ? null : world.getArena();
+            if (arena == null || turnTick < 0 || turnTick >= tick
+                    || turnCell < 0 || turnCell >= (long) arena.getCols() * arena.getRows()) {
+                throw new IOException("Bad ACK from server");
+            }
+            ackHold.set(turnTick, turnCell);
+        }
+        if (prediction != null) {
+            prediction.reconcile(tick, resolved, respawned, ackHold, headX, headZ, dirX, dirZ);
+        } else if (predicting && resolved == nextInputSeq && world != null) {
+            prediction = new PredictedSnake(world.getArena(), tick, nextInputSeq, ackHold, headX, headZ, dirX, dirZ);
+        }
+    }
+
+    // Queue a turn, to be applied as soon as it reaches the server, for the next
+    // flushInputs(). Returns false if the batch is full.
+    public boolean queueTurn(byte turn) {
+        return queueTurn(turn, 0);
+    }
+
+    // Queue a turn meant for the given tick.
+    public boolean queueTurn(byte turn, long tick) {
+        if (pendingCount == MAX_BATCH) {
+            return false;
+        }
+        pendingTurns[pendingCount] = turn;
+        pendingTicks[pendingCount] = tick;
+        pendingCount++;
+        nextInputSeq++;
+        return true;
+    }
+
+    // Turn the client's own snake: predicted at once, sent on the next flushInputs().
+    // While waiting for the ACK that starts the prediction, turns are refused.
+    public boolean turn(byte turn) {
+        if (!predicting) {
+            return queueTurn(turn);
+        }
+        if (prediction == null) {
+            return false;
+        }
+        long tick = prediction.nextInputTick();
+        if (!queueTurn(turn, tick)) {
+            return false;
+        }
+        prediction.addInput(nextInputSeq - 1, tick, turn);
+        return true;
+    }
+
+    // Send every queued turn in one INPUT frame. Unsent bytes are kept for the next call.
+    public void flushInputs() throws IOException {
+        if (pendingCount > 0) {
+            out = NetProtocol.ensureRoom(out, NetProtocol.HEADER_SIZE + 10 + pendingCount * 11);
+            int start = NetProtocol.beginFrame(out, NetProtocol.INPUT);
+            NetProtocol.putVarInt(out, nextInputSeq - pendingCount);
+            NetProtocol.putVarInt(out, pendingCount);
+            for (int t = 0; t < pendingCount; t++) {
+                NetProtocol.putVarLong(out, pendingTicks[t]);
+                out.put(pendingTurns[t]);
+            }
+            NetProtocol.endFrame(out, start);
+            pendingCount = 0;
+        }
+        if (out.position() > 0) {
+            out.flip();
+            channel.write(out);
+            out.compact();
+        }
+    }
+
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public SocketChannel getChannel() {
+        return channel;
+    }
+
+    // Null until the server's HELLO has arrived.
+    public RemoteWorld getWorld() {
+        return world;
+    }
+
+    // Predict this client's own snake locally; see PredictedSnake. Set before any turns.
+    public void setPredicting(boolean predicting) {
+        this.predicting = predicting;
+    }
+
+    // Null until the first ACK has arrived, or if not predicting.
+    public PredictedSnake getPrediction() {
+        return prediction;
+    }
+
+    public int getSnakeId() {
+        return snakeId;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+}
@@ -0,0 +1,8 @@
+package Project;
+
+// Steers a GameEngine from inside the simulation loop. The engine calls steer() at the
+// start of every tick, before the move, with getTick() still at the number of moves
+// already made, so a controller sees exactly the state a player would have seen.
+public interface GameController {
+    void steer(GameEngine engine);
+}
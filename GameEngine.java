@@ -0,0 +1,324 @@
+package Project;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+// Headless simulation core. Owns the snake body, its heading, the apple and the game
+// rules, and advances them in fixed 20 ms ticks. Real time is fed in through advance(),
+// which banks it in an accumulator and runs as many whole ticks as it covers, so the
+// simulation speed no longer depends on how often Java3D wakes a behavior up.
+// Nothing in here touches the scene graph.
+public class GameEngine {
+    public static final long TICK_NANOS = 20_000_000L;
+    public static final float STEP = 0.01f;
+    public static final float APPLE_EAT_DISTANCE = 0.2f;
+    public static final int GROWTH_PER_APPLE = 7;
+
+    public enum DeathCause { NONE, BORDER, SELF, WALL }
+
+    // Upper bound on catch-up work per advance() call, so a long stall (debugger, GC,
+    // window drag) doesn't turn into a burst of hundreds of ticks.
+    private static final int MAX_TICKS_PER_ADVANCE = 25;
+
+    private final ArenaConfig arena;
+    private final SnakeBody body;
+    private final OccupancyGrid grid;
+    private final Random random = new Random();
+    private long seed;
+    private GameController controller;
+    private Replay recorder;
+    private final ArrayList<AppleEatenListener> appleListeners = new ArrayList<>();
+    private float dirX = 0f;
+    private float dirZ = STEP;
+    private float appleX;
+    private float appleZ;
+    // Head and tail before the latest move, for renderers interpolating between ticks
+    private float prevHeadX;
+    private float prevHeadZ;
+    private float prevTailX;
+    private float prevTailZ;
+    private long tick;
+    private long accumulator;
+    private double timeScale = 1.0;
+    private int applesEaten;
+    private boolean gameOver;
+    private DeathCause deathCause = DeathCause.NONE;
+
+    public GameEngine(float startX, float startZ, float appleX, float appleZ) {
+        this(ArenaConfig.DEFAULT, startX, startZ, appleX, appleZ, System.nanoTime());
+    }
+
+    public GameEngine(float startX, float startZ, float appleX, float appleZ, long seed) {
+        this(ArenaConfig.DEFAULT, startX, startZ, appleX, appleZ, seed);
+    }
+
+    // Apple placement comes only from the seeded RNG, so the same arena, seed and turns
+    // on the same ticks always play out the same game.
+    public GameEngine(ArenaConfig arena, float startX, float startZ, float appleX, float appleZ, long seed) {
+        this.arena = arena;
+        grid = OccupancyGrid.forArena(arena);
+        this.seed = seed;
+        random.setSeed(seed);
+        body = new SnakeBody(startX, startZ);
+        grid.add(startX, startZ);
+        holdPrevious();
+        this.appleX = appleX;
+        this.appleZ = appleZ;
+
+        // Growth is just another subscriber to the apple event
+        addAppleEatenListener(event -> grow(GROWTH_PER_APPLE));
+    }
+
+    public void addAppleEatenListener(AppleEatenListener listener) {
+        appleListeners.add(listener);
+    }
+
+    public void removeAppleEatenListener(AppleEatenListener listener) {
+        appleListeners.remove(listener);
+    }
+
+    // Start a new round in place, keeping the body's arrays and the seed.
+    public void reset(float startX, float startZ, float appleX, float appleZ) {
+        reset(startX, startZ, appleX, appleZ, seed);
+    }
+
+    public void reset(float startX, float startZ, float appleX, float appleZ, long seed) {
+        this.seed = seed;
+        random.setSeed(seed);
+        body.reset(startX, startZ);
+        grid.clear();
+        grid.add(startX, startZ);
+        holdPrevious();
+        this.appleX = appleX;
+        this.appleZ = appleZ;
+        dirX = 0f;
+        dirZ = STEP;
+        tick = 0;
+        accumulator = 0;
+        applesEaten = 0;
+        gameOver = false;
+        deathCause = DeathCause.NONE;
+    }
+
+    // Feed elapsed wall-clock time and run every tick it pays for.
+    // Returns the number of ticks simulated.
+    public int advance(long elapsedNanos) {
+        accumulator += (long) (elapsedNanos * timeScale);
+        int ticks = 0;
+        while (accumulator >= TICK_NANOS && !gameOver) {
+            if (ticks == MAX_TICKS_PER_ADVANCE) {
+                accumulator = 0;
+                break;
+            }
+            step();
+            accumulator -= TICK_NANOS;
+            ticks++;
+        }
+        return ticks;
+    }
+
+    // Fraction of the next tick already banked, in [0, 1). Renderers use it to
+    // interpolate between the last two simulated states.
+    public float getAlpha() {
+        return (float) accumulator / TICK_NANOS;
+    }
+
+    // Run exactly one simulation tick.
+    public void step() {
+        if (gameOver) {
+            return;
+        }
+        if (controller != null) {
+            controller.steer(this);
+        }
+        tick++;
+
+        // Border check on the cell the head is about to enter
+        float nextX = body.getHeadX() + dirX;
+        float nextZ = body.getHeadZ() + dirZ;
+        if (nextX < -arena.getHalfWidth() || nextX > arena.getHalfWidth() ||
+            nextZ < -arena.getHalfDepth() || nextZ > arena.getHalfDepth()) {
+            die(DeathCause.BORDER);
+            GameLog.info("game_over_border", "tick", tick, "length", body.length());
+            return;
+        }
+
+        int headCell = grid.cellOf(body.getHeadX(), body.getHeadZ());
+        int nextCell = grid.cellOf(nextX, nextZ);
+        if (grid.isWall(nextCell)) {
+            die(DeathCause.WALL);
+            GameLog.info("game_over_wall", "tick", tick, "length", body.length());
+            return;
+        }
+
+        // Self collision: the head crossing into a cell that still holds body. The tail
+        // leaves its cell on this same tick, so it doesn't count against the head.
+        if (nextCell != headCell) {
+            int tailCell = grid.cellOf(body.getTailX(), body.getTailZ());
+            int occupants = grid.count(nextCell) - (tailCell == nextCell ? 1 : 0);
+            if (occupants > 0) {
+                die(DeathCause.SELF);
+                GameLog.info("game_over_self", "tick", tick, "length", body.length());
+                return;
+            }
+        }
+
+        prevHeadX = body.getHeadX();
+        prevHeadZ = body.getHeadZ();
+        prevTailX = body.getTailX();
+        prevTailZ = body.getTailZ();
+        grid.remove(body.getTailX(), body.getTailZ());
+        body.move(dirX, dirZ);
+        grid.add(nextX, nextZ);
+
+        // Apple collision is checked every tick against the cached apple position,
+        // so fast passes can't slip through
+        if (reachesApple(nextX, nextZ)) {
+            float eatenX = appleX;
+            float eatenZ = appleZ;
+            applesEaten++;
+            respawnApple();
+            AppleEatenEvent event = new AppleEatenEvent(tick, eatenX, eatenZ, appleX, appleZ, applesEaten);
+            for (int i = 0; i < appleListeners.size(); i++) {
+                appleListeners.get(i).appleEaten(event);
+            }
+        }
+    }
+
+    // Add segments on top of the tail, keeping the occupancy grid in step.
+    public void grow(int segments) {
+        body.ensureCapacity(body.length() + segments);
+        for (int i = 0; i < segments; i++) {
+            body.grow();
+            grid.add(body.getTailX(), body.getTailZ());
+        }
+    }
+
+    private void die(DeathCause cause) {
+        gameOver = true;
+        deathCause = cause;
+        holdPrevious(); // Nothing left to interpolate towards
+    }
+
+    private void holdPrevious() {
+        prevHeadX = body.getHeadX();
+        prevHeadZ = body.getHeadZ();
+        prevTailX = body.getTailX();
+        prevTailZ = body.getTailZ();
+    }
+
+    // Squared-distance test, so the per-tick check needs no square root.
+    public boolean reachesApple(float x, float z) {
+        float dx = x - appleX;
+        float dz = z - appleZ;
+        return dx * dx + dz * dz < APPLE_EAT_DISTANCE * APPLE_EAT_DISTANCE;
+    }
+
+    // Place the apple in the centre of a random cell the body doesn't cover.
+    private void respawnApple() {
+        int cell = grid.randomFreeCell(random, arena.getSpawnHalfWidth(), arena.getSpawnHalfDepth());
+        if (cell >= 0) {
+            appleX = grid.cellCenterX(cell);
+            appleZ = grid.cellCenterZ(cell);
+        }
+    }
+
+    // Rotate the heading 90 degrees counterclockwise, as seen from above.
+    public void turnLeft() {
+        if (recorder != null) {
+            recorder.addTurn(tick, Replay.LEFT);
+        }
+        float x = dirX;
+        dirX = dirZ;
+        dirZ = -x;
+    }
+
+    // Rotate the heading 90 degrees clockwise, as seen from above.
+    public void turnRight() {
+        if (recorder != null) {
+            recorder.addTurn(tick, Replay.RIGHT);
+        }
+        float x = dirX;
+        dirX = -dirZ;
+        dirZ = x;
+    }
+
+    // Scale applied to the time fed to advance(); values above 1 run faster than real time.
+    public void setTimeScale(double timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    // Steer from inside step() instead of from outside calls; null for keyboard input.
+    public void setController(GameController controller) {
+        this.controller = controller;
+    }
+
+    // Log every turn, with its tick, into the given replay; null to stop recording.
+    public void setRecorder(Replay recorder) {
+        this.recorder = recorder;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public ArenaConfig getArena() {
+        return arena;
+    }
+
+    public SnakeBody getBody() {
+        return body;
+    }
+
+    public OccupancyGrid getGrid() {
+        return grid;
+    }
+
+    public float getDirX() {
+        return dirX;
+    }
+
+    public float getDirZ() {
+        return dirZ;
+    }
+
+    public float getAppleX() {
+        return appleX;
+    }
+
+    public float getAppleZ() {
+        return appleZ;
+    }
+
+    public float getPrevHeadX() {
+        return prevHeadX;
+    }
+
+    public float getPrevHeadZ() {
+        return prevHeadZ;
+    }
+
+    public float getPrevTailX() {
+        return prevTailX;
+    }
+
+    public float getPrevTailZ() {
+        return prevTailZ;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public int getApplesEaten() {
+        return applesEaten;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public DeathCause getDeathCause() {
+        return deathCause;
+    }
+}
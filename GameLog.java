@@ -0,0 +1,202 @@
+package Project;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Asynchronous event log for the game threads. A call records an event name and up to
+// two numeric key=value fields into a preallocated ring buffer slot and returns; the
+// "log-writer" daemon thread formats and prints them. The level is checked before
+// anything else, and events carry constant names and primitive values, so a disabled
+// debug call costs one comparison and an enabled one allocates nothing on the caller.
+// When the buffer is full new events are dropped and counted rather than waiting.
+//
+//   GameLog.debug("turn", "dirX", dirX, "dirZ", dirZ);
+//
+// The threshold comes from -Dsnake.logLevel (DEBUG, INFO, WARN, ERROR; default INFO).
+public final class GameLog {
+    public enum Level { DEBUG, INFO, WARN, ERROR, OFF }
+
+    private static final int CAPACITY = 4096;
+    private static final int MASK = CAPACITY - 1;
+    private static final long IDLE_PARK_NANOS = 2_000_000L;
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static volatile int threshold = parseLevel(System.getProperty("snake.logLevel", "INFO")).ordinal();
+
+    // Slot fields, written by the producer that claimed the slot before it publishes
+    private static final long[] times = new long[CAPACITY];
+    private static final Level[] levels = new Level[CAPACITY];
+    private static final String[] threads = new String[CAPACITY];
+    private static final String[] events = new String[CAPACITY];
+    private static final String[] keys1 = new String[CAPACITY];
+    private static final double[] values1 = new double[CAPACITY];
+    private static final String[] keys2 = new String[CAPACITY];
+    private static final double[] values2 = new double[CAPACITY];
+    // Sequence number stored in a slot once its event is fully written
+    private static final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+
+    private static final AtomicLong claimed = new AtomicLong();
+    private static volatile long consumed;
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private static final Object drainLock = new Object();
+    private static final Writer out =
+            new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 16 * 1024);
+    private static final StringBuilder line = new StringBuilder(128);
+    private static long reportedDrops;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            published.set(i, -1);
+        }
+        Thread writer = new Thread(GameLog::writerLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(GameLog::drain, "log-flush"));
+    }
+
+    private GameLog() {
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold;
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level.ordinal();
+    }
+
+    public static void debug(String event) {
+        if (threshold <= 0) log(Level.DEBUG, event, null, 0, null, 0);
+    }
+
+    public static void debug(String event, String key, double value) {
+        if (threshold <= 0) log(Level.DEBUG, event, key, value, null, 0);
+    }
+
+    public static void debug(String event, String key1, double value1, String key2, double value2) {
+        if (threshold <= 0) log(Level.DEBUG, event, key1, value1, key2, value2);
+    }
+
+    public static void info(String event) {
+        if (threshold <= 1) log(Level.INFO, event, null, 0, null, 0);
+    }
+
+    public static void info(String event, String key, double value) {
+        if (threshold <= 1) log(Level.INFO, event, key, value, null, 0);
+    }
+
+    public static void info(String event, String key1, double value1, String key2, double value2) {
+        if (threshold <= 1) log(Level.INFO, event, key1, value1, key2, value2);
+    }
+
+    public static void warn(String event) {
+        if (threshold <= 2) log(Level.WARN, event, null, 0, null, 0);
+    }
+
+    public static void error(String event) {
+        if (threshold <= 3) log(Level.ERROR, event, null, 0, null, 0);
+    }
+
+    private static void log(Level level, String event, String key1, double value1, String key2, double value2) {
+        long seq;
+        do {
+            seq = claimed.get();
+            if (seq - consumed >= CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(seq, seq + 1));
+
+        int slot = (int) seq & MASK;
+        times[slot] = System.currentTimeMillis();
+        levels[slot] = level;
+        threads[slot] = Thread.currentThread().getName();
+        events[slot] = event;
+        keys1[slot] = key1;
+        values1[slot] = value1;
+        keys2[slot] = key2;
+        values2[slot] = value2;
+        published.set(slot, seq);
+    }
+
+    private static void writerLoop() {
+        while (true) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    // Print every published event in order. Returns how many were written.
+    private static int drain() {
+        synchronized (drainLock) {
+            int written = 0;
+            try {
+                long next = consumed;
+                while (published.get((int) next & MASK) == next) {
+                    int slot = (int) next & MASK;
+                    format(slot);
+                    events[slot] = null;
+                    threads[slot] = null;
+                    consumed = ++next;
+                    written++;
+                }
+                long drops = dropped.get();
+                if (drops != reportedDrops) {
+                    out.write("GameLog dropped " + (drops - reportedDrops) + " events (buffer full)"
+                            + System.lineSeparator());
+                    reportedDrops = drops;
+                    written++;
+                }
+                if (written > 0) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return written;
+        }
+    }
+
+    private static void format(int slot) throws IOException {
+        line.setLength(0);
+        TIME_FORMAT.formatTo(Instant.ofEpochMilli(times[slot]), line);
+        line.append(' ').append(levels[slot]).append(" [").append(threads[slot]).append("] ").append(events[slot]);
+        appendField(keys1[slot], values1[slot]);
+        appendField(keys2[slot], values2[slot]);
+        line.append(System.lineSeparator());
+        out.append(line);
+    }
+
+    private static void appendField(String key, double value) {
+        if (key == null) {
+            return;
+        }
+        line.append(' ').append(key).append('=');
+        if (value == (long) value) {
+            line.append((long) value);
+        } else {
+            line.append(value);
+        }
+    }
+
+    private static Level parseLevel(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown log level: " + name + ", using INFO");
+            return Level.INFO;
+        }
+    }
+}
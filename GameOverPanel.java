@@ -7,6 +7,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 
 public class GameOverPanel extends JPanel {
+    private JLabel scoreLabel;
 
     public GameOverPanel(MainApp mainApp) {
         setLayout(new BorderLayout());
@@ -15,6 +16,11 @@ public class GameOverPanel extends JPanel {
         JLabel gameOverLabel = new JLabel("Game Over", SwingConstants.CENTER);
         gameOverLabel.setFont(new Font("Arial", Font.BOLD, 36));
         add(gameOverLabel, BorderLayout.CENTER);
+
+        // Final score for the round
+        scoreLabel = new JLabel("Score: 0", SwingConstants.CENTER);
+        scoreLabel.setFont(new Font("Arial", Font.PLAIN, 24));
+        add(scoreLabel, BorderLayout.NORTH);
         
         // Button panel at the bottom
         JPanel buttonPanel = new JPanel();
@@ -43,4 +49,9 @@ public class GameOverPanel extends JPanel {
         
         add(buttonPanel, BorderLayout.SOUTH);
     }
-}
\ No newline at end of file
+
+    // The panel is created once and reused; this refreshes it for the latest round.
+    public void setScore(int score, int bestScore) {
+        scoreLabel.setText("Score: " + score + "    Best: " + bestScore);
+    }
+}
\ No newline at end of file
@@ -2,9 +2,7 @@ package Project;
 
 import org.jogamp.java3d.*;
 import org.jogamp.java3d.utils.universe.SimpleUniverse;
-import org.jogamp.java3d.utils.geometry.Box;
 import org.jogamp.java3d.utils.geometry.Sphere;
-import org.jogamp.java3d.utils.image.TextureLoader;
 import org.jogamp.java3d.OrientedShape3D;
 import org.jogamp.java3d.utils.picking.PickCanvas;
 import org.jogamp.java3d.utils.picking.PickResult;
@@ -13,8 +11,11 @@ import org.jogamp.vecmath.Point3d;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.io.File;
+import java.io.IOException;
 import java.util.Iterator;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
@@ -26,11 +27,34 @@ public class GamePanel extends JPanel {
     private Canvas3D canvas;
     private SimpleUniverse universe;
     private BranchGroup root;
+    private BranchGroup roundBG; // Detachable subgraph for the current game
+    private Switch environmentSwitch; // Easy / hard background and lights
+    private Appearance groundAppearance;
+    private AppleMorphPickBehavior pickBehavior;
+    private CameraWASDBehavior camBehavior;
     private String selectedMap; 
     private String selectedDifficulty;
     private boolean isHardMode = false;
     
     private TransformGroup snakeTG; // To hold the snake's transform group
+    private GameEngine engine; // Headless simulation that owns the game state
+    private ScoreKeeper scoreKeeper; // Points for the current round
+    private final GameStats stats = new GameStats(); // Frame, tick and GC timings
+    // Arena size and walls, fixed for the life of the app
+    private final ArenaConfig arena = ArenaConfig.fromSystemProperties();
+    private final ArenaGeometry arenaGeometry = new ArenaGeometry(arena);
+    private final Bounds sceneBounds = new BoundingSphere(new Point3d(), arena.getSceneRadius());
+    private Replay recording; // Turns of the current game
+    private Replay playback; // Recorded game to show instead of a live one
+    private double playbackSpeed = 1.0;
+    private long roundStartMillis;
+    private KeyboardController keyboard; // Arrow keys for the current game
+
+    // Camera arithmetic shared by both camera modes, and the scratch objects
+    // updateCameraPosition() reads the snake into
+    private final CameraRig cameraRig = new CameraRig();
+    private final Vector3f cameraSnakePos = new Vector3f();
+    private final Transform3D cameraSnakeT3d = new Transform3D();
     private Snake snake;  // Declare Snake object here
 
     public GamePanel(MainApp parent) {
@@ -41,7 +65,7 @@ public class GamePanel extends JPanel {
     public void setSelectedMap(String selectedMap) {
         this.selectedMap = selectedMap;
         System.out.println("Selected Map in GamePanel: " + selectedMap);
-        loadTexture(selectedMap);
+        parent.getTextureCache().preload(selectedMap); // No-op once the map is cached
     }
 
     public void setSelectedDifficulty(String selectedDifficulty) {
@@ -57,184 +81,221 @@ public class GamePanel extends JPanel {
         }
     }
 
+    // The universe, canvas and static scenery are built on the first game and kept for
+    // the life of the app. Each game only attaches a fresh round BranchGroup holding the
+    // snake and apple, so a restart costs milliseconds instead of a Java3D cold start.
     public void start3D() {
-        removeAll();
-        canvas = new Canvas3D(SimpleUniverse.getPreferredConfiguration());
-        add(canvas, BorderLayout.CENTER);
-        revalidate();
-        repaint();
-
-        universe = new SimpleUniverse(canvas);
-        universe.getViewingPlatform().setNominalViewingTransform();
-
-        root = createSceneGraph();
-        root.compile();
-        universe.addBranchGraph(root);
+        long start = System.nanoTime();
+        if (universe == null) {
+            stats.register();
+            StatsCanvas3D statsCanvas = new StatsCanvas3D(SimpleUniverse.getPreferredConfiguration(), stats);
+            statsCanvas.addKeyListener(new KeyAdapter() {
+                @Override
+                public void keyPressed(KeyEvent e) {
+                    if (e.getKeyCode() == KeyEvent.VK_F3) {
+                        statsCanvas.toggleOverlay();
+                    }
+                }
+            });
+            canvas = statsCanvas;
+            add(canvas, BorderLayout.CENTER);
+            revalidate();
+            repaint();
+
+            universe = new SimpleUniverse(canvas);
+            universe.getViewingPlatform().setNominalViewingTransform();
+
+            root = createSceneGraph();
+            root.compile();
+            universe.addBranchGraph(root);
+        } else {
+            canvas.startRenderer();
+        }
+
+        // Map and difficulty only switch state on the persistent scenery
+        Texture texture = parent.getTextureCache().get(selectedMap);  // Use selected map name for texture
+        if (texture == null) {
+            System.out.println("Texture " + selectedMap + " not loaded, using default.");
+            texture = parent.getTextureCache().get("groundTexture"); // Fallback texture
+        }
+        groundAppearance.setTexture(texture);
+        environmentSwitch.setWhichChild(isHardMode ? 1 : 0);
+        camBehavior.setEnable(!isHardMode);
+
+        stats.reset();
+        startRound();
+        canvas.requestFocusInWindow(); // Arrow keys go to the canvas's key listeners
+        GameLog.info("game_ready", "ms", (System.nanoTime() - start) / 1_000_000);
     }
 
     public void stop3D() {
-        if (universe != null) {
-            universe.cleanup();
-            universe = null;
+        if (roundBG != null) {
+            roundBG.detach();
+            roundBG = null;
+        }
+        if (keyboard != null) {
+            canvas.removeKeyListener(keyboard);
+            keyboard = null;
+        }
+        if (canvas != null) {
+            canvas.stopRenderer();
         }
-        removeAll();
-        revalidate();
-        repaint();
     }
-    
+
+    // Scenery shared by every game: environment for both difficulties, ground, borders,
+    // billboard and the picking and camera behaviors.
     private BranchGroup createSceneGraph() {
         BranchGroup bg = new BranchGroup();
-
-        // background and ambient light (dark background for hard mode)
-        if (isHardMode) {
-            // Hard mode setup: Dark background and spotlight
-            Background bgColor = new Background(0.1f, 0.1f, 0.1f); // Dark background for hard mode
-            bgColor.setApplicationBounds(new BoundingSphere(new Point3d(0, 0, 0), 100));
-            bg.addChild(bgColor);
-
-            Color3f ambientColor = new Color3f(0.2f, 0.2f, 0.2f); // Dim ambient light for hard mode
-            AmbientLight ambient = new AmbientLight(ambientColor);
-            ambient.setInfluencingBounds(new BoundingSphere(new Point3d(), 100));
-            bg.addChild(ambient);
-
-            // Add a spotlight centered on the snake's position
-            addSpotlight(bg);
-        } else {
-            // Easy mode setup: Light background and standard ambient light
-            Background bgColor = new Background(0.2f, 0.2f, 0.5f);  // Light background for easy mode
-            bgColor.setApplicationBounds(new BoundingSphere(new Point3d(0, 0, 0), 100));
-            bg.addChild(bgColor);
-
-            Color3f ambientColor = new Color3f(1, 1, 1); // Standard ambient light for easy mode
-            AmbientLight ambient = new AmbientLight(ambientColor);
-            ambient.setInfluencingBounds(new BoundingSphere(new Point3d(), 100));
-            bg.addChild(ambient);
-        }
+        bg.setCapability(BranchGroup.ALLOW_CHILDREN_EXTEND);
+        bg.setCapability(BranchGroup.ALLOW_CHILDREN_WRITE);
+
+        // background and ambient light, one child per difficulty
+        environmentSwitch = new Switch();
+        environmentSwitch.setCapability(Switch.ALLOW_SWITCH_WRITE);
+        bg.addChild(environmentSwitch);
+
+        // Easy mode setup: Light background and standard ambient light
+        Group easyEnv = new Group();
+        Background easyBg = new Background(0.2f, 0.2f, 0.5f);  // Light background for easy mode
+        easyBg.setApplicationBounds(sceneBounds);
+        easyEnv.addChild(easyBg);
+        AmbientLight easyAmbient = new AmbientLight(new Color3f(1, 1, 1)); // Standard ambient light for easy mode
+        easyAmbient.setInfluencingBounds(sceneBounds);
+        easyEnv.addChild(easyAmbient);
+        environmentSwitch.addChild(easyEnv);
+
+        // Hard mode setup: Dark background and spotlight
+        Group hardEnv = new Group();
+        Background hardBg = new Background(0.1f, 0.1f, 0.1f); // Dark background for hard mode
+        hardBg.setApplicationBounds(sceneBounds);
+        hardEnv.addChild(hardBg);
+        AmbientLight hardAmbient = new AmbientLight(new Color3f(0.2f, 0.2f, 0.2f)); // Dim ambient light for hard mode
+        hardAmbient.setInfluencingBounds(sceneBounds);
+        hardEnv.addChild(hardAmbient);
+        // Add a spotlight centered on the snake's position
+        addSpotlight(hardEnv);
+        environmentSwitch.addChild(hardEnv);
 
         bg.addChild(createGround());
         bg.addChild(createBorder());
+        bg.addChild(createBillboard());
+
+        pickBehavior = new AppleMorphPickBehavior(canvas, bg);
+        pickBehavior.setSchedulingBounds(sceneBounds);
+        bg.addChild(pickBehavior);
+
+        // WASD/zoom camera, enabled for easy mode only
+        TransformGroup viewTG = universe.getViewingPlatform().getViewPlatformTransform();
+        camBehavior = new CameraWASDBehavior(viewTG);
+        camBehavior.setSchedulingBounds(sceneBounds);
+        bg.addChild(camBehavior);
+
+        return bg;
+    }
+
+    // Build the per-game subgraph (simulation, snake, apple and their behaviors) and
+    // attach it to the live scene.
+    private void startRound() {
+        roundStartMillis = System.currentTimeMillis();
+        roundBG = new BranchGroup();
+        roundBG.setCapability(BranchGroup.ALLOW_DETACH);
 
         TransformGroup gameTG = new TransformGroup();
         gameTG.setCapability(TransformGroup.ALLOW_CHILDREN_WRITE);
-        bg.addChild(gameTG);
-
-        // Initialize Snake object
-        snake = new Snake(new Vector3f(0f, -0.4f, 0f));
+        roundBG.addChild(gameTG);
+
+        // Initialize the simulation and the Snake view that mirrors it. A live game is
+        // recorded so it can be replayed; a replay drives the engine from its own turns.
+        if (playback != null) {
+            engine = playback.newEngine();
+            engine.setController(new ReplayPlayer(playback));
+            engine.setTimeScale(playbackSpeed);
+            recording = null;
+            playback = null;
+        } else {
+            long seed = Long.getLong("snake.seed", System.nanoTime());
+            engine = new GameEngine(arena, 0f, 0f, arena.getStartAppleX(), arena.getStartAppleZ(), seed);
+            recording = new Replay(arena, seed, 0f, 0f, arena.getStartAppleX(), arena.getStartAppleZ());
+            engine.setRecorder(recording);
+            if (Boolean.getBoolean("snake.autopilot")) {
+                // -Dsnake.autopilot=true lets the pathfinder play, for demos and soak runs
+                engine.setController(new PathfindingController());
+            } else {
+                // Key presses are queued on the EDT and applied by the engine once per tick
+                keyboard = new KeyboardController(stats);
+                engine.setController(keyboard);
+                canvas.addKeyListener(keyboard);
+            }
+        }
+        // -Dsnake.bodyRenderer=mesh draws the body as one geometry instead of one node per segment
+        boolean useMesh = "mesh".equals(System.getProperty("snake.bodyRenderer"));
+        snake = new Snake(engine, useMesh);
         snakeTG = snake.getTransformGroup(); // Store snake's transform group
         gameTG.addChild(snakeTG);
 
-        SnakeMoveBehavior moveBehavior = new SnakeMoveBehavior(snake);
-        moveBehavior.setSchedulingBounds(new BoundingSphere(new Point3d(), 100));
+        SnakeMoveBehavior moveBehavior = new SnakeMoveBehavior(engine, snake, stats);
+        moveBehavior.setSchedulingBounds(sceneBounds);
         gameTG.addChild(moveBehavior);
 
-        Snake.SnakeBehavior snakeBehavior = snake.new SnakeBehavior();
-        snakeBehavior.setSchedulingBounds(new BoundingSphere(new Point3d(), 100));
-        gameTG.addChild(snakeBehavior);
 
-        TransformGroup appleTG = createMorphingAppleTG(2f, 1f);
+        TransformGroup appleTG = createMorphingAppleTG(engine.getAppleX(), engine.getAppleZ());
         gameTG.addChild(appleTG);
+        pickBehavior.appleReplaced();
 
-        AppleCollisionBehavior appleCollision = new AppleCollisionBehavior(snake, appleTG);
-        appleCollision.setSchedulingBounds(new BoundingSphere(new Point3d(), 100));
-        gameTG.addChild(appleCollision);
-
-        AppleMorphPickBehavior pickBehavior = new AppleMorphPickBehavior(canvas, bg);
-        pickBehavior.setSchedulingBounds(new BoundingSphere(new Point3d(), 100));
-        bg.addChild(pickBehavior);
-
-        TransformGroup billboardTG = createBillboard();
-        gameTG.addChild(billboardTG);
+        // Apple, audio and score react to the engine's apple event instead of polling
+        engine.addAppleEatenListener(new AppleEatenHandler(appleTG));
+        scoreKeeper = new ScoreKeeper();
+        engine.addAppleEatenListener(scoreKeeper);
 
-        // Camera behavior based on difficulty
-        TransformGroup viewTG = universe.getViewingPlatform().getViewPlatformTransform();
+        // Camera based on difficulty
         Transform3D viewTransform = new Transform3D();
-
         if (isHardMode) {
             // For hard mode: first-person POV camera (no zoom, but WASD movement allowed)
             updateCameraPosition(viewTransform);  // Update camera position based on snake's position and rotation
         } else {
-            // Default camera setup for easy mode (zoom is enabled here)
-            viewTransform.lookAt(new Point3d(5, 5, 3), new Point3d(0, -0.4, 0), new Vector3d(0, 1, 0));
+            // Default camera setup for easy mode (zoom is enabled here), standing off the
+            // +x side of the arena far enough to take it all in
+            float halfWidth = arena.getHalfWidth();
+            float halfDepth = arena.getHalfDepth();
+            viewTransform.lookAt(new Point3d(halfWidth, Math.max(halfWidth, halfDepth), 0.6 * halfDepth),
+                    new Point3d(0, -0.4, 0), new Vector3d(0, 1, 0));
             viewTransform.invert();
-
-            CameraWASDBehavior camBehavior = new CameraWASDBehavior(viewTG);
-            camBehavior.setSchedulingBounds(new BoundingSphere(new Point3d(), 100));
-            bg.addChild(camBehavior);
         }
-
         universe.getViewingPlatform().getViewPlatformTransform().setTransform(viewTransform);
 
-        return bg;
+        root.addChild(roundBG);
     }
 
-    private void addSpotlight(BranchGroup bg) {
+    private void addSpotlight(Group bg) {
         // Create a spotlight at the snake's position
         Point3f position = new Point3f(0.0f, 0.5f, 1.0f);  // Example position, can adjust based on snake position
         SpotLight spotlight = new SpotLight(new Color3f(1.0f, 1.0f, 1.0f), position, new Point3f(0f, 0f, 0f), new Vector3f(0f, -1f, 0f), (float)Math.PI / 4, 1.0f);
-        spotlight.setInfluencingBounds(new BoundingSphere(new Point3d(0, 0, 0), 100));
+        spotlight.setInfluencingBounds(sceneBounds);
         bg.addChild(spotlight);
     }
 
     private void updateCameraPosition(Transform3D viewTransform) {
         // Get the snake's position
-        Vector3f snakePosition = new Vector3f();
-        Transform3D snakeTransform = new Transform3D();
-        snakeTG.getTransform(snakeTransform); // Get the current transform of the snake
-        snakeTransform.get(snakePosition); // Extract the position from the transform
-
-        // Get the snake's forward direction (this assumes 'direction' is a normalized vector pointing the snake's forward direction)
-        Vector3f forwardDirection = snake.getDirection(); // Use snake's direction method
-
-        // We want the camera to be positioned behind and slightly above the snake
-        // Camera position offset: behind the snake by 1.5 units, and above the snake by 0.5 units
-        Vector3f cameraOffset = new Vector3f(0f, 0.5f, 1.5f);
-
-        // Calculate camera's position relative to the snake
-        Vector3f cameraPosition = new Vector3f(snakePosition);
-        cameraPosition.add(forwardDirection);  // Adjust position based on snake’s forward direction
-        cameraPosition.add(cameraOffset);  // Add the offset for positioning the camera behind the snake
-
-        // Set the camera position
-        viewTransform.setTranslation(cameraPosition);
-
-        // Apply the snake's rotation to the camera (rotate the camera based on the snake's direction)
-        Transform3D cameraRotation = new Transform3D();
-        cameraRotation.rotY(Math.atan2(forwardDirection.z, forwardDirection.x));  // Rotate to align with snake's forward direction
-        viewTransform.mul(cameraRotation);  // Apply the camera rotation to the view transform
-
-        // Set the camera to always look at the snake's position
-        viewTransform.lookAt(new Point3d(snakePosition.x, snakePosition.y, snakePosition.z),  // Focus on the snake
-                              new Point3d(snakePosition.x, snakePosition.y, snakePosition.z - 1),  // Look slightly in front of the snake
-                              new Vector3d(0, 1, 0));  // Camera's up vector is along the Y-axis
+        snakeTG.getTransform(cameraSnakeT3d); // Get the current transform of the snake
+        cameraSnakeT3d.get(cameraSnakePos); // Extract the position from the transform
+
+        // Behind and slightly above the snake, looking along its direction
+        cameraRig.follow(cameraSnakePos, snake.getDirection(), viewTransform);
     }
 
 
+    // Ground and walls come from the arena config, one Shape3D each however big it is.
     private BranchGroup createGround() {
         BranchGroup groundBG = new BranchGroup();
-        QuadArray groundQuad = new QuadArray(4, GeometryArray.COORDINATES | GeometryArray.TEXTURE_COORDINATE_2);
-
-        // Define coordinates for the ground
-        groundQuad.setCoordinate(0, new Point3f(-5f, -0.5f, 5f));
-        groundQuad.setCoordinate(1, new Point3f(5f, -0.5f, 5f));
-        groundQuad.setCoordinate(2, new Point3f(5f, -0.5f, -5f));
-        groundQuad.setCoordinate(3, new Point3f(-5f, -0.5f, -5f));
-
-        // Set texture coordinates
-        groundQuad.setTextureCoordinate(0, 0, new TexCoord2f(0, 0));
-        groundQuad.setTextureCoordinate(0, 1, new TexCoord2f(1, 0));
-        groundQuad.setTextureCoordinate(0, 2, new TexCoord2f(1, 1));
-        groundQuad.setTextureCoordinate(0, 3, new TexCoord2f(0, 1));
-
-        // Use the selected texture for the ground
-        Texture texture = loadTexture(selectedMap);  // Use selected map name for texture
-        if (texture == null) {
-            System.out.println("Texture " + selectedMap + " not loaded, using default.");
-            texture = loadTexture("groundTexture"); // Fallback texture
-        }
+        QuadArray groundQuads = new QuadArray(arenaGeometry.getGroundVertexCount(),
+                GeometryArray.COORDINATES | GeometryArray.TEXTURE_COORDINATE_2);
+        groundQuads.setCoordinates(0, arenaGeometry.getGroundCoords());
+        groundQuads.setTextureCoordinates(0, 0, arenaGeometry.getGroundTexCoords());
 
-        Appearance app = new Appearance();
-        app.setTexture(texture);
-        Shape3D groundShape = new Shape3D(groundQuad, app);
+        // The map texture is set by start3D() from the texture cache for each game
+        groundAppearance = new Appearance();
+        groundAppearance.setCapability(Appearance.ALLOW_TEXTURE_WRITE);
+        Shape3D groundShape = new Shape3D(groundQuads, groundAppearance);
         TransformGroup groundTG = new TransformGroup();
         groundTG.addChild(groundShape);
         groundBG.addChild(groundTG);
@@ -242,104 +303,14 @@ public class GamePanel extends JPanel {
         return groundBG;
     }
 
-    // This method is used to load a texture based on the map name.
-    private Texture loadTexture(String textureName) {
-        try {
-            String texturePath = "resources/" + textureName + ".jpg";
-            File textureFile = new File(texturePath);
-
-            // Check if the texture file exists
-            if (!textureFile.exists()) {
-                System.err.println("Texture file not found: " + texturePath);
-                return null;
-            }
-
-            // Load the texture
-            TextureLoader textureLoader = new TextureLoader(texturePath, this);
-            Texture texture = textureLoader.getTexture();
-            return texture;
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.err.println("Error loading texture: " + textureName);
-            return null;
-        }
-    }
-
-
-    private Texture textured_App(String textureName) {
-        // Construct the filename based on the texture name parameter
-        String filename = "resources/" + textureName + ".jpg";  // E.g., resources/oceanTexture.jpg
-        System.out.println("Loading texture from: " + filename);
-        
-        // Load the texture from the file
-        TextureLoader loader = new TextureLoader(filename, null);
-        ImageComponent2D image = loader.getImage(); // Load the image from the file
-
-        // If the image is not found or cannot be loaded, print an error message
-        if (image == null) {
-            System.out.println("Cannot load file: " + filename);
-            return null;  // Return null if the texture loading fails
-        }
-
-        // Create a 2D texture object
-        Texture2D texture = new Texture2D(Texture.BASE_LEVEL,
-                Texture.RGBA, image.getWidth(), image.getHeight());
-        texture.setImage(0, image); // Set the loaded image as the texture
-
-        return texture;  // Return the texture object
-    }
-
+    // Border walls (red left, green right, blue top, yellow bottom) and any interior walls
     private BranchGroup createBorder() {
         BranchGroup borderBG = new BranchGroup();
-
-        // Left border with a red color
-        Appearance leftBorderApp = new Appearance();
-        ColoringAttributes leftCA = new ColoringAttributes(new Color3f(1f, 0f, 0f), ColoringAttributes.NICEST); // Red
-        leftBorderApp.setColoringAttributes(leftCA);
-        Box leftBorder = new Box(0.05f, 0.5f, 5f, leftBorderApp);
-        TransformGroup leftTG = new TransformGroup();
-        Transform3D leftPos = new Transform3D();
-        leftPos.setTranslation(new Vector3f(-5f, -0.45f, 0f));
-        leftTG.setTransform(leftPos);
-        leftTG.addChild(leftBorder);
-        borderBG.addChild(leftTG);
-
-        // Right border with a green color
-        Appearance rightBorderApp = new Appearance();
-        ColoringAttributes rightCA = new ColoringAttributes(new Color3f(0f, 1f, 0f), ColoringAttributes.NICEST); // Green
-        rightBorderApp.setColoringAttributes(rightCA);
-        Box rightBorder = new Box(0.05f, 0.5f, 5f, rightBorderApp);
-        TransformGroup rightTG = new TransformGroup();
-        Transform3D rightPos = new Transform3D();
-        rightPos.setTranslation(new Vector3f(5f, -0.45f, 0f));
-        rightTG.setTransform(rightPos);
-        rightTG.addChild(rightBorder);
-        borderBG.addChild(rightTG);
-
-        // Top border with a blue color
-        Appearance topBorderApp = new Appearance();
-        ColoringAttributes topCA = new ColoringAttributes(new Color3f(0f, 0f, 1f), ColoringAttributes.NICEST); // Blue
-        topBorderApp.setColoringAttributes(topCA);
-        Box topBorder = new Box(5f, 0.5f, 0.05f, topBorderApp);
-        TransformGroup topTG = new TransformGroup();
-        Transform3D topPos = new Transform3D();
-        topPos.setTranslation(new Vector3f(0f, -0.45f, 5f));
-        topTG.setTransform(topPos);
-        topTG.addChild(topBorder);
-        borderBG.addChild(topTG);
-
-        // Bottom border with a yellow color
-        Appearance bottomBorderApp = new Appearance();
-        ColoringAttributes bottomCA = new ColoringAttributes(new Color3f(1f, 1f, 0f), ColoringAttributes.NICEST); // Yellow
-        bottomBorderApp.setColoringAttributes(bottomCA);
-        Box bottomBorder = new Box(5f, 0.5f, 0.05f, bottomBorderApp);
-        TransformGroup bottomTG = new TransformGroup();
-        Transform3D bottomPos = new Transform3D();
-        bottomPos.setTranslation(new Vector3f(0f, -0.45f, -5f));
-        bottomTG.setTransform(bottomPos);
-        bottomTG.addChild(bottomBorder);
-        borderBG.addChild(bottomTG);
-
+        QuadArray wallQuads = new QuadArray(arenaGeometry.getWallVertexCount(),
+                GeometryArray.COORDINATES | GeometryArray.COLOR_3);
+        wallQuads.setCoordinates(0, arenaGeometry.getWallCoords());
+        wallQuads.setColors(0, arenaGeometry.getWallColors());
+        borderBG.addChild(new Shape3D(wallQuads, new Appearance()));
         return borderBG;
     }
 
@@ -395,9 +366,20 @@ public class GamePanel extends JPanel {
     
     // Behavior for mouse picking the morphing apple.
     private class AppleMorphPickBehavior extends Behavior {
+        // The two morph states, set directly rather than read back and edited
+        private final double[] smallWeights = {1.0, 0.0};
+        private final double[] largeWeights = {0.0, 1.0};
+
         private WakeupCondition wakeupCondition;
         private Canvas3D canvas;
         private BranchGroup scene;
+        private PickCanvas pickCanvas;
+        private boolean appleLarge = false;
+
+        // A new round builds a new apple, which starts small
+        public void appleReplaced() {
+            appleLarge = false;
+        }
         
         public AppleMorphPickBehavior(Canvas3D canvas, BranchGroup scene) {
             this.canvas = canvas;
@@ -407,6 +389,8 @@ public class GamePanel extends JPanel {
         @Override
         public void initialize() {
             wakeupCondition = new WakeupOnAWTEvent(MouseEvent.MOUSE_CLICKED);
+            pickCanvas = new PickCanvas(canvas, scene); // Built once, reused for every click
+            pickCanvas.setMode(PickCanvas.BOUNDS);
             wakeupOn(wakeupCondition);
         }
         
@@ -419,26 +403,17 @@ public class GamePanel extends JPanel {
                     for (AWTEvent event : events) {
                         if (event instanceof MouseEvent) {
                             MouseEvent me = (MouseEvent) event;
-                            PickCanvas pickCanvas = new PickCanvas(canvas, scene);
-                            pickCanvas.setMode(PickCanvas.BOUNDS);
                             pickCanvas.setShapeLocation(me);
                             PickResult result = pickCanvas.pickClosest();
                             if (result != null) {
                                 Node picked = result.getObject();
                                 if (picked != null && picked.getUserData() != null &&
                                     picked.getUserData().toString().equals("appleMorph")) {
-                                    System.out.println("Apple clicked, toggling morph!");
+                                    GameLog.debug("apple_clicked");
                                     Morph morph = (Morph) picked;
-                                    double[] weights = morph.getWeights();
-                                    // Toggle weights with a collision threshold of 0.5.
-                                    if (weights[0] > 0.5) {
-                                        weights[0] = 0.0;
-                                        weights[1] = 1.0;
-                                    } else {
-                                        weights[0] = 1.0;
-                                        weights[1] = 0.0;
-                                    }
-                                    morph.setWeights(weights);
+                                    // Toggle between the two geometries.
+                                    appleLarge = !appleLarge;
+                                    morph.setWeights(appleLarge ? largeWeights : smallWeights);
                                 }
                             }
                         }
@@ -449,64 +424,75 @@ public class GamePanel extends JPanel {
         }
     }
     
-    private class AppleCollisionBehavior extends Behavior {
-        private WakeupCondition wakeupCondition;
-        private Snake snake;
+    // Moves the apple model and plays the sound when the engine reports an apple eaten.
+    // Runs inside the engine tick, which SnakeMoveBehavior drives from the behavior
+    // scheduler, so it may write to the live scene graph directly.
+    private class AppleEatenHandler implements AppleEatenListener {
         private TransformGroup appleTG;
-        private boolean appleEaten = false; // Track if apple has been eaten
+        private Transform3D appleT3d = new Transform3D();
+        private Vector3f applePos = new Vector3f();
 
-        public AppleCollisionBehavior(Snake snake, TransformGroup appleTG) {
-            this.snake = snake;
+        public AppleEatenHandler(TransformGroup appleTG) {
             this.appleTG = appleTG;
         }
 
         @Override
-        public void initialize() {
-            wakeupCondition = new WakeupOnElapsedTime(100); // You can fine-tune this to check less often
-            wakeupOn(wakeupCondition);
+        public void appleEaten(AppleEatenEvent event) {
+            // Move the apple model to where the engine respawned it
+            applePos.set(event.getNextX(), -0.4f, event.getNextZ());
+            appleT3d.setTranslation(applePos);
+            appleTG.setTransform(appleT3d);
+
+            // Queue the sound; decoding and playback happen on the audio thread
+            parent.getAudioEngine().play("apple_eaten.wav");
+
+            GameLog.info("apple_eaten", "tick", event.getTick(), "apples", event.getApplesEaten());
         }
+    }
 
-        @Override
-        public void processStimulus(Iterator<WakeupCriterion> criteria) {
-            Vector3f headPos = snake.getHeadPosition();
-            Transform3D appleT3d = new Transform3D();
-            appleTG.getTransform(appleT3d);
-            Vector3f applePos = new Vector3f();
-            appleT3d.get(applePos);
-
-            // Check if the snake's head is within a threshold distance of the apple
-            Vector3f diff = new Vector3f();
-            diff.sub(headPos, applePos);
-            if (diff.length() < 0.2f && !appleEaten) {  // Apple eaten check to avoid repetitive actions
-                appleEaten = true; // Mark apple as eaten
-
-                // Snake growth logic (add 7 segments)
-                for (int i = 0; i < 7; i++) {
-                    snake.addSegment();
-                }
+    public int getScore() {
+        return scoreKeeper != null ? scoreKeeper.getScore() : 0;
+    }
 
-                // Reposition apple after collision
-                repositionApple(appleTG);
+    // Queue the finished game for the score history. Replays aren't scored.
+    public void saveScore() {
+        if (engine == null || recording == null) {
+            return;
+        }
+        parent.getScoreStore().record(new ScoreRecord(System.currentTimeMillis(), selectedMap, selectedDifficulty,
+                getScore(), engine.getBody().length(), engine.getApplesEaten(), engine.getTick(),
+                (int) (System.currentTimeMillis() - roundStartMillis)));
+    }
 
-                // Play audio once
-                AudioLoader audioLoader = new AudioLoader();
-                audioLoader.playAudio("apple_eaten.wav");
+    // Show a recorded game in place of the next live one, at the given speed multiple.
+    public void setPlayback(Replay replay, double speed) {
+        playback = replay;
+        playbackSpeed = speed;
+    }
 
-                System.out.println("Apple eaten! Snake grows.");
+    // With -Dsnake.replayDir=<dir>, each game over saves the game's replay there
+    public void writeReplay() {
+        String replayDir = System.getProperty("snake.replayDir");
+        if (replayDir != null && recording != null) {
+            recording.finish(engine);
+            File file = new File(replayDir, "snake-" + System.currentTimeMillis() + ".snkr");
+            try {
+                new File(replayDir).mkdirs();
+                recording.write(file);
+                System.out.println("Replay written to " + file.getPath());
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.err.println("Error writing replay: " + file.getPath());
             }
-
-            wakeupOn(wakeupCondition); // Continue checking for collisions
         }
+    }
 
-        private void repositionApple(TransformGroup appleTG) {
-            // Randomize apple's position after being eaten
-            float newX = (float)(Math.random() * 8 - 4);
-            float newZ = (float)(Math.random() * 8 - 4);
-            Transform3D newPos = new Transform3D();
-            newPos.setTranslation(new Vector3f(newX, -0.4f, newZ));
-            appleTG.setTransform(newPos);
-
-            appleEaten = false; // Reset apple eaten flag after repositioning
+    // With -Dsnake.statsDir=<dir>, each game over leaves a CSV of the round's timings there
+    public void writeStats() {
+        String statsDir = System.getProperty("snake.statsDir");
+        if (statsDir != null) {
+            new File(statsDir).mkdirs();
+            stats.writeCsv(new File(statsDir, "snake-stats-" + System.currentTimeMillis() + ".csv"));
         }
     }
 
@@ -550,8 +536,9 @@ public class GamePanel extends JPanel {
     private class CameraWASDBehavior extends Behavior {
         private WakeupCondition wakeupCondition;
         private TransformGroup viewTG;
-        private float zoomSpeed = 0.1f; // Speed of zooming
-        private float movementSpeed = 0.1f; // Speed of normal movement
+
+        // Scratch transform reused for every key press
+        private final Transform3D currTransform = new Transform3D();
 
         public CameraWASDBehavior(TransformGroup viewTG) {
             this.viewTG = viewTG;
@@ -572,52 +559,11 @@ public class GamePanel extends JPanel {
                     for (AWTEvent event : events) {
                         if (event instanceof java.awt.event.KeyEvent) {
                             java.awt.event.KeyEvent ke = (java.awt.event.KeyEvent) event;
-                            Transform3D currTransform = new Transform3D();
                             viewTG.getTransform(currTransform);
-                            Vector3f translation = new Vector3f();
-                            currTransform.get(translation); // Get current camera position
-
-                            // WASD movement logic (for directional movement)
-                            if (ke.getKeyCode() == java.awt.event.KeyEvent.VK_W) {
-                                translation.z -= movementSpeed; // Move forward
-                            } else if (ke.getKeyCode() == java.awt.event.KeyEvent.VK_S) {
-                                translation.z += movementSpeed; // Move backward
-                            } else if (ke.getKeyCode() == java.awt.event.KeyEvent.VK_A) {
-                                translation.x -= movementSpeed; // Move left
-                            } else if (ke.getKeyCode() == java.awt.event.KeyEvent.VK_D) {
-                                translation.x += movementSpeed; // Move right
-                            }
-
-                            // Zoom in (Z key) -- move the camera forward along its view direction
-                            else if (ke.getKeyCode() == java.awt.event.KeyEvent.VK_Z) {
-                                // Get the camera's rotation matrix
-                                Matrix3f rotation = new Matrix3f();
-                                currTransform.getRotationScale(rotation);
-                                
-                                // Extract the camera's forward direction (typically negative Z in local space)
-                                Vector3f forward = new Vector3f();
-                                rotation.getColumn(2, forward); // Extract the third column (Z axis)
-
-                                // Move the camera along the forward direction (zoom in)
-                                translation.sub(forward); // Move closer to the scene (negative Z direction)
+                            // WASD pans, Z and X zoom; other keys leave the camera alone
+                            if (cameraRig.keyStep(currTransform, ke.getKeyCode())) {
+                                viewTG.setTransform(currTransform);
                             }
-                            // Zoom out (X key) -- move the camera backward along its view direction
-                            else if (ke.getKeyCode() == java.awt.event.KeyEvent.VK_X) {
-                                // Get the camera's rotation matrix
-                                Matrix3f rotation = new Matrix3f();
-                                currTransform.getRotationScale(rotation);
-                                
-                                // Extract the camera's forward direction (typically negative Z in local space)
-                                Vector3f forward = new Vector3f();
-                                rotation.getColumn(2, forward); // Extract the third column (Z axis)
-
-                                // Move the camera along the opposite of the forward direction (zoom out)
-                                translation.add(forward); // Move away from the scene (positive Z direction)
-                            }
-
-                            // Update the camera's transform
-                            currTransform.setTranslation(translation);
-                            viewTG.setTransform(currTransform);
                         }
                     }
                 }
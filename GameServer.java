@@ -0,0 +1,582 @@
+package Project;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+// Authoritative multiplayer server. One thread runs a MultiSnakeArena at the engine's
+// tick rate and serves every client from a single NIO selector: each connection takes
+// over one snake (LookaheadPilot bots drive the rest), its INPUT frames are queued and
+// applied one turn per tick at the ticks they ask for, and after every tick all clients
+// get the same DELTA frame. A client that joins is sent HELLO, then a FULL frame after
+// the next tick. A client whose turn was applied, or whose snake respawned, also gets an
+// ACK with its snake's exact state, for client-side prediction (see PredictedSnake).
+//
+//   java -cp <classpath> Project.GameServer --port 7777 --snakes 8
+//   java -cp <classpath> Project.GameServer --clients 50 --snakes 1000 --ticks 3000
+//
+// With --clients the server listens on an ephemeral loopback port, that many simulated
+// clients connect and steer at random, and after --ticks ticks it reports server tick
+// time, bandwidth and whether every client's world matches the server's.
+public class GameServer implements Runnable {
+    private static final int INPUT_QUEUE_CAPACITY = 256; // Turns a client may have waiting
+    private static final int MAX_BACKLOG = 4 << 20; // Unsent bytes before a client is dropped
+
+    private final MultiSnakeArena arena;
+    private final SnapshotEncoder encoder;
+    private final long tickNanos;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Connection[] slots; // Connection driving each snake, null for bots
+    private final MultiSnakeArena.Pilot bot = new LookaheadPilot(4);
+    private final List<Connection> connections = new ArrayList<>();
+    private final ByteBuffer ack = ByteBuffer.allocate(64);
+    // One INPUT frame's turns, checked before any are queued
+    private final long[] inputTicks = new long[INPUT_QUEUE_CAPACITY];
+    private final byte[] inputTurns = new byte[INPUT_QUEUE_CAPACITY];
+    private volatile boolean running = true;
+
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private final LatencyHistogram inputLatencies = new LatencyHistogram();
+    private long ticks;
+    private long bytesSent;
+    private long deltaBytes;
+    private long segmentListBytes; // What sending every segment's x and z would have cost
+    private long inputsReceived;
+
+    // A client's turns in the order they were sent, applied to its snake once their tick
+    // comes and the TurnHold since the last one allows, the same rule the player's own
+    // keyboard follows, so a client can't crowd turns closer than that. Filled by the
+    // server thread between ticks and drained in the plan phase, which the pool's invoke
+    // orders after it.
+    private class RemotePilot implements MultiSnakeArena.Pilot {
+        final byte[] turns = new byte[INPUT_QUEUE_CAPACITY];
+        final long[] ticks = new long[INPUT_QUEUE_CAPACITY];
+        final long[] received = new long[INPUT_QUEUE_CAPACITY];
+        int head;
+        int size;
+        int resolved; // Turns applied so far, which are the client's first sequence numbers
+        int acked = -1; // resolved as of the last ACK sent; -1 until the first, sent on joining
+        final TurnHold hold = new TurnHold();
+
+        boolean offer(byte turn, long tick, long now) {
+            if (size == turns.length) {
+                return false;
+            }
+            int slot = (head + size++) % turns.length;
+            turns[slot] = turn;
+            ticks[slot] = tick;
+            received[slot] = now;
+            return true;
+        }
+
+        @Override
+        public int steer(MultiSnakeArena arena, int snake) {
+            if (size == 0 || ticks[head] > arena.getTick()) {
+                return STRAIGHT;
+            }
+            SnakeBody body = arena.getBody(snake);
+            int headCell = arena.getGrid().cellOf(body.getHeadX(), body.getHeadZ());
+            if (!hold.allows(arena.getTick(), headCell, arena.getArena().getCellSize())) {
+                return STRAIGHT; // The turn waits in the queue
+            }
+            hold.turned(arena.getTick(), headCell);
+            byte turn = turns[head];
+            inputLatencies.record(System.nanoTime() - received[head]);
+            head = (head + 1) % turns.length;
+            size--;
+            resolved++;
+            return turn == KeyboardController.TURN_LEFT ? LEFT : RIGHT;
+        }
+    }
+
+    private class Connection {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final int snake;
+        final RemotePilot pilot = new RemotePilot();
+        ByteBuffer in = ByteBuffer.allocate(4096);
+        ByteBuffer out = ByteBuffer.allocate(4096);
+        boolean needsFull = true;
+
+        Connection(SocketChannel channel, int snake) throws IOException {
+            this.channel = channel;
+            this.snake = snake;
+            key = channel.register(selector, SelectionKey.OP_READ, this);
+        }
+    }
+
+    public GameServer(ArenaConfig config, int snakes, int threads, long seed, long tickNanos,
+                      InetSocketAddress address) throws IOException {
+        arena = new MultiSnakeArena(config, snakes, Math.max(1, snakes / 4), threads, seed);
+        for (int i = 0; i < snakes; i++) {
+            arena.setPilot(i, bot);
+        }
+        encoder = new SnapshotEncoder(arena);
+        this.tickNanos = tickNanos;
+        slots = new Connection[snakes];
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    // Serve and simulate until stop(). Ticks are scheduled on a fixed grid; if the
+    // server falls far behind it skips ahead rather than running a burst of ticks.
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime();
+        try {
+            while (running) {
+                long wait = nextTick - System.nanoTime();
+                if (wait > 0) {
+                    selector.select(Math.max(1, wait / 1_000_000));
+                } else {
+                    selector.selectNow();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable()) {
+                            read(connection);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(connection);
+                        }
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (now - nextTick >= 0) {
+                    tick();
+                    nextTick += tickNanos;
+                    if (now - nextTick > 5 * tickNanos) {
+                        nextTick = now;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.err.println("Game server stopped");
+        } finally {
+            for (int i = connections.size() - 1; i >= 0; i--) {
+                disconnect(connections.get(i));
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            arena.close();
+        }
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void tick() {
+        long start = System.nanoTime();
+        arena.tick();
+        ByteBuffer delta = encoder.update();
+        deltaBytes += delta.remaining();
+        for (int i = connections.size() - 1; i >= 0; i--) {
+            Connection connection = connections.get(i);
+            ByteBuffer frame = delta;
+            if (connection.needsFull) {
+                frame = encoder.full();
+                connection.needsFull = false;
+            }
+            send(connection, frame);
+            delta.rewind();
+            // send() drops a client that has fallen too far behind
+            if (connections.contains(connection)) {
+                sendAck(connection);
+            }
+        }
+        ticks++;
+        tickTimes.record(System.nanoTime() - start);
+        for (int i = 0; i < arena.getSnakeCount(); i++) {
+            segmentListBytes += arena.getBody(i).length() * 8L;
+        }
+    }
+
+    // Tell the client its snake's exact state if one of its turns took effect or the
+    // snake started over this tick.
+    private void sendAck(Connection connection) {
+        RemotePilot pilot = connection.pilot;
+        int snake = connection.snake;
+        MultiSnakeArena.Outcome outcome = arena.getOutcome(snake);
+        boolean respawned = outcome != MultiSnakeArena.Outcome.MOVE && outcome != MultiSnakeArena.Outcome.STAY;
+        if (respawned) {
+            pilot.hold.reset(); // A new snake may turn at once
+        }
+        if (pilot.resolved == pilot.acked && !respawned) {
+            return;
+        }
+        boolean turned = pilot.hold.getLastTurnCell() >= 0;
+        pilot.acked = pilot.resolved;
+        SnakeBody body = arena.getBody(snake);
+        ack.clear();
+        int start = NetProtocol.beginFrame(ack, NetProtocol.ACK);
+        NetProtocol.putVarLong(ack, arena.getTick());
+        NetProtocol.putVarInt(ack, pilot.resolved);
+        ack.put((byte) ((respawned ? NetProtocol.ACK_RESPAWNED : 0) | (turned ? NetProtocol.ACK_TURNED : 0)));
+        ack.putFloat(body.getHeadX());
+        ack.putFloat(body.getHeadZ());
+        ack.putFloat(arena.getDirX(snake));
+        ack.putFloat(arena.getDirZ(snake));
+        if (turned) {
+            NetProtocol.putVarLong(ack, pilot.hold.getLastTurnTick());
+            NetProtocol.putVarInt(ack, pilot.hold.getLastTurnCell());
+        }
+        NetProtocol.endFrame(ack, start);
+        ack.flip();
+        send(connection, ack);
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        int snake = 0;
+        while (snake < slots.length && slots[snake] != null) {
+            snake++;
+        }
+        if (snake == slots.length) {
+            GameLog.warn("server_full");
+            channel.close();
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel, snake);
+        slots[snake] = connection;
+        connections.add(connection);
+        arena.setPilot(snake, connection.pilot);
+
+        ByteBuffer hello = ByteBuffer.allocate(64);
+        int start = NetProtocol.beginFrame(hello, NetProtocol.HELLO);
+        ArenaConfig config = arena.getArena();
+        NetProtocol.putVarInt(hello, snake);
+        NetProtocol.putVarInt(hello, config.getCols());
+        NetProtocol.putVarInt(hello, config.getRows());
+        hello.putFloat(config.getCellSize());
+        hello.put((byte) config.getLayout().ordinal());
+        NetProtocol.putVarInt(hello, arena.getSnakeCount());
+        NetProtocol.putVarInt(hello, arena.getAppleCount());
+        NetProtocol.endFrame(hello, start);
+        hello.flip();
+        send(connection, hello);
+        GameLog.info("client_joined", "snake", snake, "clients", connections.size());
+    }
+
+    private void read(Connection connection) {
+        int read;
+        try {
+            read = connection.channel.read(connection.in);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            disconnect(connection);
+            return;
+        }
+        long now = System.nanoTime();
+        ByteBuffer in = connection.in;
+        in.flip();
+        while (in.remaining() >= 4) {
+            int start = in.position();
+            int length = in.getInt(start);
+            if (length < 1 || length > in.capacity() - 4) {
+                GameLog.warn("bad_client_frame");
+                disconnect(connection);
+                return;
+            }
+            if (in.remaining() < 4 + length) {
+                break;
+            }
+            // Parse from a view bounded by the frame, so a frame that lies about its
+            // contents runs out of bytes instead of reading into the next one
+            ByteBuffer frame = in.slice(start + NetProtocol.HEADER_SIZE, length - 1);
+            boolean valid;
+            try {
+                valid = readFrame(connection, in.get(start + 4), frame, now);
+            } catch (RuntimeException e) {
+                valid = false;
+            }
+            if (!valid) {
+                GameLog.warn("bad_client_frame");
+                disconnect(connection);
+                return;
+            }
+            in.position(start + 4 + length);
+        }
+        in.compact();
+    }
+
+    // Apply one frame from a client. Returns false if the frame breaks the protocol; a
+    // malformed one may also throw, e.g. BufferUnderflowException. Nothing is queued
+    // unless the whole frame checks out.
+    private boolean readFrame(Connection connection, byte type, ByteBuffer frame, long now) {
+        if (type != NetProtocol.INPUT) {
+            return true; // Nothing else is sent by clients yet
+        }
+        // Turns arrive in order over TCP, so the sequence number is only a check
+        int firstSeq = NetProtocol.getVarInt(frame);
+        int count = NetProtocol.getVarInt(frame);
+        RemotePilot pilot = connection.pilot;
+        // A client can't honestly get more than a queue's worth ahead
+        if (firstSeq != pilot.resolved + pilot.size || count < 0 || count > INPUT_QUEUE_CAPACITY - pilot.size) {
+            return false;
+        }
+        for (int t = 0; t < count; t++) {
+            inputTicks[t] = NetProtocol.getVarLong(frame);
+            inputTurns[t] = frame.get();
+            if (inputTurns[t] != KeyboardController.TURN_LEFT && inputTurns[t] != KeyboardController.TURN_RIGHT) {
+                return false;
+            }
+        }
+        if (frame.hasRemaining()) {
+            return false;
+        }
+        for (int t = 0; t < count; t++) {
+            pilot.offer(inputTurns[t], inputTicks[t], now);
+        }
+        inputsReceived += count;
+        return true;
+    }
+
+    // Queue a frame for the client and write as much as the socket takes.
+    private void send(Connection connection, ByteBuffer frame) {
+        if (connection.out.position() + frame.remaining() > MAX_BACKLOG) {
+            GameLog.warn("client_too_slow");
+            disconnect(connection);
+            return;
+        }
+        connection.out = NetProtocol.ensureRoom(connection.out, frame.remaining());
+        connection.out.put(frame);
+        flush(connection);
+    }
+
+    private void flush(Connection connection) {
+        ByteBuffer out = connection.out;
+        out.flip();
+        try {
+            bytesSent += connection.channel.write(out);
+        } catch (IOException e) {
+            out.compact();
+            disconnect(connection);
+            return;
+        }
+        out.compact();
+        // Wait for the socket only while something is left over
+        connection.key.interestOps(out.position() > 0
+                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private void disconnect(Connection connection) {
+        if (!connections.remove(connection)) {
+            return;
+        }
+        slots[connection.snake] = null;
+        arena.setPilot(connection.snake, bot);
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        GameLog.info("client_left", "snake", connection.snake, "clients", connections.size());
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public static void main(String[] args) {
+        int port = 7777;
+        int snakes = 8;
+        int threads = 1;
+        long seed = 1;
+        int clients = 0;
+        long runTicks = 3000;
+        long tickNanos = GameEngine.TICK_NANOS;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--snakes":
+                    snakes = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--clients":
+                    clients = Integer.parseInt(args[++i]);
+                    break;
+                case "--ticks":
+                    runTicks = Long.parseLong(args[++i]);
+                    break;
+                case "--tick-rate":
+                    tickNanos = 1_000_000_000L / Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: GameServer [--port P] [--snakes N] [--threads N] [--seed S] [--tick-rate HZ] [--clients N --ticks N]");
+                    System.exit(2);
+            }
+        }
+
+        ArenaConfig config = ArenaConfig.fromSystemProperties();
+        try {
+            if (clients == 0) {
+                GameServer server = new GameServer(config, snakes, threads, seed, tickNanos, new InetSocketAddress(port));
+                System.out.println("Serving " + snakes + " snakes on " + server.getAddress());
+                server.run();
+                return;
+            }
+            GameServer server = new GameServer(config, Math.max(snakes, clients), threads, seed, tickNanos,
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            if (!simulate(server, clients, runTicks, seed)) {
+                System.exit(1);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.err.println("Cannot start game server");
+            System.exit(1);
+        }
+    }
+
+    // Run the server against simulated clients that turn at random, at most once a cell
+    // as the server allows, each sending its turns in one INPUT frame every few ticks.
+    // Returns whether every client ended up with the server's state.
+    private static boolean simulate(GameServer server, int clientCount, long runTicks, long seed) throws IOException {
+        final int inputBatchTicks = 5;
+        Thread serverThread = new Thread(server, "game-server");
+        serverThread.start();
+
+        Selector selector = Selector.open();
+        GameClient[] clients = new GameClient[clientCount];
+        for (int i = 0; i < clientCount; i++) {
+            clients[i] = GameClient.connect(server.getAddress());
+            clients[i].getChannel().register(selector, SelectionKey.OP_READ, clients[i]);
+        }
+        Random random = new Random(seed);
+        int ticksPerCell = TurnHold.ticksPerCell(server.arena.getArena().getCellSize());
+        long[] lastFlushTick = new long[clientCount];
+        long[] lastTurnTick = new long[clientCount];
+        long start = System.nanoTime();
+        while (server.getTicks() < runTicks) {
+            selector.select(5);
+            selector.selectedKeys().clear();
+            for (int i = 0; i < clientCount; i++) {
+                GameClient client = clients[i];
+                if (client.poll() <= 0 || client.getWorld() == null) {
+                    continue;
+                }
+                long tick = client.getWorld().getTick();
+                if (tick - lastTurnTick[i] >= ticksPerCell && random.nextInt(20) == 0) {
+                    client.queueTurn(random.nextBoolean() ? KeyboardController.TURN_LEFT : KeyboardController.TURN_RIGHT);
+                    lastTurnTick[i] = tick;
+                }
+                if (tick - lastFlushTick[i] >= inputBatchTicks) {
+                    client.flushInputs();
+                    lastFlushTick[i] = tick;
+                }
+            }
+        }
+        server.stop();
+        try {
+            serverThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Take in whatever was still in flight, then compare with the server's trails
+        for (GameClient client : clients) {
+            while (client.poll() >= 0) {
+                // Until the server's close reaches us
+            }
+        }
+        int inSync = 0;
+        for (GameClient client : clients) {
+            if (matches(client.getWorld(), server.encoder)) {
+                inSync++;
+            }
+            client.close();
+        }
+        selector.close();
+
+        long ticks = server.ticks;
+        System.out.printf("%d ticks in %.1f s, %d clients, %d snakes%n",
+                ticks, seconds, clientCount, server.arena.getSnakeCount());
+        System.out.printf("server tick    p50 %.3f  p99 %.3f  max %.3f ms%n",
+                server.tickTimes.getPercentile(50) / 1e6, server.tickTimes.getPercentile(99) / 1e6,
+                server.tickTimes.getMax() / 1e6);
+        System.out.printf("input queued   p50 %.3f  p99 %.3f  max %.3f ms (%d turns received)%n",
+                server.inputLatencies.getPercentile(50) / 1e6, server.inputLatencies.getPercentile(99) / 1e6,
+                server.inputLatencies.getMax() / 1e6, server.inputsReceived);
+        System.out.printf("sent %.1f bytes/tick per client, %.1f kbit/s per client at %.0f ticks/s%n",
+                (double) server.bytesSent / ticks / clientCount,
+                server.bytesSent * 8 / 1000.0 / seconds / clientCount, ticks / seconds);
+        System.out.printf("delta frame %.1f bytes/tick; full segment lists would be %.0f bytes/tick%n",
+                (double) server.deltaBytes / ticks, (double) server.segmentListBytes / ticks);
+        System.out.printf("clients in sync with the server: %d/%d%n", inSync, clientCount);
+        return inSync == clientCount;
+    }
+
+    private static boolean matches(RemoteWorld world, SnapshotEncoder encoder) {
+        if (world == null || !world.isSynced()) {
+            return false;
+        }
+        for (int i = 0; i < world.getSnakeCount(); i++) {
+            CellTrail mine = world.getTrail(i);
+            CellTrail theirs = encoder.getTrail(i);
+            if (mine.length() != theirs.length()) {
+                return false;
+            }
+            for (int c = 0; c < mine.length(); c++) {
+                if (mine.getCell(c) != theirs.getCell(c)) {
+                    return false;
+                }
+            }
+        }
+        for (int a = 0; a < world.getAppleCount(); a++) {
+            if (world.getAppleCell(a) != encoder.getAppleCell(a)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,213 @@
+package Project;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.MBeanServer;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+// Timing data for the running game: frame interval and render time from the canvas,
+// simulation time per tick from SnakeMoveBehavior, key-press-to-turn latency from
+// KeyboardController, and GC pauses reported by the JVM.
+// The same numbers feed the in-game overlay, the GameStats MBean and the CSV written
+// at game over.
+public class GameStats implements GameStatsMBean {
+    private final LatencyHistogram frameTimes = new LatencyHistogram();
+    // Change in frame interval from one frame to the next; zero for perfectly even pacing
+    private final LatencyHistogram frameJitter = new LatencyHistogram();
+    private final LatencyHistogram renderTimes = new LatencyHistogram();
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private final LatencyHistogram gcPauses = new LatencyHistogram();
+    private final LatencyHistogram inputLatencies = new LatencyHistogram();
+    private volatile long rejectedInputs;
+
+    // FPS over the last whole second, updated by the render thread
+    private volatile double framesPerSecond;
+    private long fpsWindowStart;
+    private int fpsWindowFrames;
+    private long lastSwapNanos;
+    private long lastFrameNanos;
+    private volatile int snakeLength;
+
+    private final NotificationListener gcListener = this::gcNotification;
+
+    // Register the MBean and start listening for GC pauses.
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("Project:type=GameStats");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(this, name);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.err.println("Error registering GameStats MBean");
+        }
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gc instanceof NotificationEmitter) {
+                ((NotificationEmitter) gc).addNotificationListener(gcListener, null, null);
+            }
+        }
+    }
+
+    private void gcNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        gcPauses.record(info.getGcInfo().getDuration() * 1_000_000L);
+    }
+
+    // Called from the canvas after each buffer swap.
+    public void frameSwapped(long renderStartNanos, long swapNanos) {
+        renderTimes.record(swapNanos - renderStartNanos);
+        if (lastSwapNanos != 0) {
+            long frameNanos = swapNanos - lastSwapNanos;
+            frameTimes.record(frameNanos);
+            if (lastFrameNanos != 0) {
+                frameJitter.record(Math.abs(frameNanos - lastFrameNanos));
+            }
+            lastFrameNanos = frameNanos;
+        }
+        lastSwapNanos = swapNanos;
+
+        fpsWindowFrames++;
+        if (swapNanos - fpsWindowStart >= 1_000_000_000L) {
+            if (fpsWindowStart != 0) {
+                framesPerSecond = fpsWindowFrames * 1e9 / (swapNanos - fpsWindowStart);
+            }
+            fpsWindowStart = swapNanos;
+            fpsWindowFrames = 0;
+        }
+    }
+
+    // Called by SnakeMoveBehavior after advancing the engine; the batch time is split
+    // evenly across the ticks it ran.
+    public void ticksRun(int ticks, long elapsedNanos) {
+        if (ticks > 0) {
+            tickTimes.record(elapsedNanos / ticks, ticks);
+        }
+    }
+
+    // Called by KeyboardController when a queued turn is applied.
+    public void inputApplied(long latencyNanos, long rejectedInputs) {
+        inputLatencies.record(latencyNanos);
+        this.rejectedInputs = rejectedInputs;
+    }
+
+    public void setSnakeLength(int snakeLength) {
+        this.snakeLength = snakeLength;
+    }
+
+    // Write one summary row per histogram.
+    public void writeCsv(File file) {
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            out.println("metric,count,mean_ms,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+            writeRow(out, "frame", frameTimes);
+            writeRow(out, "frame_jitter", frameJitter);
+            writeRow(out, "render", renderTimes);
+            writeRow(out, "tick", tickTimes);
+            writeRow(out, "gc_pause", gcPauses);
+            writeRow(out, "input_latency", inputLatencies);
+            System.out.println("Stats written to " + file.getPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.err.println("Error writing stats: " + file.getPath());
+        }
+    }
+
+    private static void writeRow(PrintWriter out, String metric, LatencyHistogram histogram) {
+        out.printf(java.util.Locale.ROOT, "%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n", metric,
+                histogram.getCount(),
+                histogram.getMean() / 1e6,
+                millis(histogram.getPercentile(50)),
+                millis(histogram.getPercentile(90)),
+                millis(histogram.getPercentile(99)),
+                millis(histogram.getPercentile(99.9)),
+                millis(histogram.getMax()));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    @Override
+    public double getFramesPerSecond() { return framesPerSecond; }
+    @Override
+    public int getSnakeLength() { return snakeLength; }
+
+    @Override
+    public long getFrameCount() { return frameTimes.getCount(); }
+    @Override
+    public double getFrameTimeP50Millis() { return millis(frameTimes.getPercentile(50)); }
+    @Override
+    public double getFrameTimeP99Millis() { return millis(frameTimes.getPercentile(99)); }
+    @Override
+    public double getFrameTimeMaxMillis() { return millis(frameTimes.getMax()); }
+
+    @Override
+    public double getFrameJitterP50Millis() { return millis(frameJitter.getPercentile(50)); }
+    @Override
+    public double getFrameJitterP99Millis() { return millis(frameJitter.getPercentile(99)); }
+    @Override
+    public double getFrameJitterMaxMillis() { return millis(frameJitter.getMax()); }
+
+    @Override
+    public double getRenderTimeP50Millis() { return millis(renderTimes.getPercentile(50)); }
+    @Override
+    public double getRenderTimeP99Millis() { return millis(renderTimes.getPercentile(99)); }
+    @Override
+    public double getRenderTimeMaxMillis() { return millis(renderTimes.getMax()); }
+
+    @Override
+    public long getTickCount() { return tickTimes.getCount(); }
+    @Override
+    public double getTickTimeP50Millis() { return millis(tickTimes.getPercentile(50)); }
+    @Override
+    public double getTickTimeP99Millis() { return millis(tickTimes.getPercentile(99)); }
+    @Override
+    public double getTickTimeMaxMillis() { return millis(tickTimes.getMax()); }
+
+    @Override
+    public long getGcPauseCount() { return gcPauses.getCount(); }
+    @Override
+    public double getGcPauseP50Millis() { return millis(gcPauses.getPercentile(50)); }
+    @Override
+    public double getGcPauseP99Millis() { return millis(gcPauses.getPercentile(99)); }
+    @Override
+    public double getGcPauseMaxMillis() { return millis(gcPauses.getMax()); }
+
+    @Override
+    public long getInputCount() { return inputLatencies.getCount(); }
+    @Override
+    public long getRejectedInputs() { return rejectedInputs; }
+    @Override
+    public double getInputLatencyP50Millis() { return millis(inputLatencies.getPercentile(50)); }
+    @Override
+    public double getInputLatencyP99Millis() { return millis(inputLatencies.getPercentile(99)); }
+    @Override
+    public double getInputLatencyMaxMillis() { return millis(inputLatencies.getMax()); }
+
+    // Start a fresh set of samples, e.g. for a new round.
+    @Override
+    public void reset() {
+        frameTimes.reset();
+        frameJitter.reset();
+        renderTimes.reset();
+        tickTimes.reset();
+        gcPauses.reset();
+        inputLatencies.reset();
+        rejectedInputs = 0;
+        lastSwapNanos = 0;
+        lastFrameNanos = 0;
+    }
+}
@@ -0,0 +1,38 @@
+package Project;
+
+// Management interface for GameStats, browsable in JConsole or VisualVM under
+// Project:type=GameStats. Times are in milliseconds.
+public interface GameStatsMBean {
+    double getFramesPerSecond();
+    int getSnakeLength();
+
+    long getFrameCount();
+    double getFrameTimeP50Millis();
+    double getFrameTimeP99Millis();
+    double getFrameTimeMaxMillis();
+    double getFrameJitterP50Millis();
+    double getFrameJitterP99Millis();
+    double getFrameJitterMaxMillis();
+
+    double getRenderTimeP50Millis();
+    double getRenderTimeP99Millis();
+    double getRenderTimeMaxMillis();
+
+    long getTickCount();
+    double getTickTimeP50Millis();
+    double getTickTimeP99Millis();
+    double getTickTimeMaxMillis();
+
+    long getGcPauseCount();
+    double getGcPauseP50Millis();
+    double getGcPauseP99Millis();
+    double getGcPauseMaxMillis();
+
+    long getInputCount();
+    long getRejectedInputs();
+    double getInputLatencyP50Millis();
+    double getInputLatencyP99Millis();
+    double getInputLatencyMaxMillis();
+
+    void reset();
+}
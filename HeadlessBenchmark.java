@@ -0,0 +1,105 @@
+package Project;
+
+import java.lang.management.ManagementFactory;
+
+// Runs the GameEngine with no Java3D scene, canvas or display attached and reports
+// simulated ticks per second and bytes allocated per tick.
+//
+//   java -cp <classpath> Project.HeadlessBenchmark --lengths 1,100,1000 --runs 5 --ticks 200000
+//   java -cp <classpath> Project.MainApp --headless [same options]
+//
+// With --max-bytes-per-tick the runner exits with status 1 if any run allocates more
+// than that on average, which makes it usable as an allocation gate in CI.
+//
+// The snake follows PatrolRoute so it never reaches the border or itself; if it dies
+// anyway the round is reset and grown back to the requested length.
+public class HeadlessBenchmark {
+    private static final int WARMUP_TICKS = 50_000;
+
+    public static void main(String[] args) {
+        int[] lengths = {1, 100, 1000};
+        int runs = 5;
+        long ticks = 200_000;
+        double maxBytesPerTick = Double.MAX_VALUE;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--lengths":
+                    String[] parts = args[++i].split(",");
+                    lengths = new int[parts.length];
+                    for (int j = 0; j < parts.length; j++) {
+                        lengths[j] = Integer.parseInt(parts[j].trim());
+                    }
+                    break;
+                case "--runs":
+                    runs = Integer.parseInt(args[++i]);
+                    break;
+                case "--ticks":
+                    ticks = Long.parseLong(args[++i]);
+                    break;
+                case "--max-bytes-per-tick":
+                    maxBytesPerTick = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: HeadlessBenchmark [--lengths 1,100,1000] [--runs N] [--ticks N] [--max-bytes-per-tick N]");
+                    System.exit(2);
+            }
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        boolean overBudget = false;
+        System.out.printf("%-8s %-4s %12s %14s %12s %8s%n",
+                "length", "run", "ticks", "ticks/sec", "bytes/tick", "deaths");
+        for (int length : lengths) {
+            GameEngine engine = new GameEngine(PatrolRoute.START_X, PatrolRoute.START_Z, 2f, 1f);
+            grow(engine, length);
+            simulate(engine, WARMUP_TICKS, length);
+
+            for (int run = 1; run <= runs; run++) {
+                engine.reset(PatrolRoute.START_X, PatrolRoute.START_Z, 2f, 1f);
+                grow(engine, length);
+
+                long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                int deaths = simulate(engine, ticks, length);
+                long elapsed = System.nanoTime() - start;
+                long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+                double bytesPerTick = (double) bytes / ticks;
+                System.out.printf("%-8d %-4d %12d %14.0f %12.3f %8d%n",
+                        length, run, ticks, ticks * 1e9 / elapsed, bytesPerTick, deaths);
+                if (bytesPerTick > maxBytesPerTick) {
+                    overBudget = true;
+                }
+            }
+        }
+
+        if (overBudget) {
+            System.err.println("Allocation budget of " + maxBytesPerTick + " bytes/tick exceeded");
+            System.exit(1);
+        }
+    }
+
+    private static void grow(GameEngine engine, int length) {
+        engine.grow(length - engine.getBody().length());
+    }
+
+    // Step the engine for the given number of ticks, returning how many rounds ended.
+    private static int simulate(GameEngine engine, long ticks, int length) {
+        int deaths = 0;
+        for (long t = 0; t < ticks; t++) {
+            PatrolRoute.steer(engine);
+            engine.step();
+            if (engine.isGameOver()) {
+                deaths++;
+                engine.reset(PatrolRoute.START_X, PatrolRoute.START_Z, 2f, 1f);
+                grow(engine, length);
+            }
+        }
+        return deaths;
+    }
+}
@@ -0,0 +1,65 @@
+package Project;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded single-producer single-consumer queue of timestamped input commands. The AWT
+// event thread offers, the simulation thread consumes; neither ever takes a lock or
+// waits. A command is written into its slot before the producer's index is published,
+// and a slot is only reused after the consumer's index has moved past it.
+public class InputQueue {
+    private final int mask;
+    private final byte[] commands;
+    private final long[] timestamps;
+    private final AtomicLong head = new AtomicLong(); // Next slot to consume
+    private final AtomicLong tail = new AtomicLong(); // Next slot to fill
+    private long cachedHead; // Producer's last look at head, saves a volatile read per offer
+    private final AtomicLong rejected = new AtomicLong();
+
+    // Capacity is rounded up to a power of two.
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+        mask = size - 1;
+        commands = new byte[size];
+        timestamps = new long[size];
+    }
+
+    // Producer side. Returns false, and counts the command as rejected, if the queue is full.
+    public boolean offer(byte command, long timestampNanos) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) {
+                rejected.incrementAndGet();
+                return false;
+            }
+        }
+        int slot = (int) t & mask;
+        commands[slot] = command;
+        timestamps[slot] = timestampNanos;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    // Consumer side: whether a command is waiting.
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    // Consumer side: the oldest command. Only valid while !isEmpty().
+    public byte peekCommand() {
+        return commands[(int) head.get() & mask];
+    }
+
+    public long peekTimestamp() {
+        return timestamps[(int) head.get() & mask];
+    }
+
+    // Consumer side: drop the oldest command, freeing its slot for the producer.
+    public void remove() {
+        head.lazySet(head.get() + 1);
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
@@ -0,0 +1,85 @@
+package Project;
+
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+
+// Arrow-key steering. Key presses are queued on the AWT event thread with the time they
+// arrived, and the engine takes them from inside its tick, so a turn can never land
+// between a tick's collision check and its move. After a turn the next one waits in the
+// queue until the head has crossed into a new cell (see TurnHold): two quick presses the
+// same way would otherwise send the head back down its own lane, a hundredth of a unit
+// from its body, and into itself at the next cell crossing. Presses are never merged or
+// lost unless more than a queue's worth pile up. The same queue can drive one snake of a
+// MultiSnakeArena.
+public class KeyboardController implements GameController, MultiSnakeArena.Pilot, KeyListener {
+    public static final byte TURN_LEFT = 1;
+    public static final byte TURN_RIGHT = 2;
+
+    private static final int QUEUE_CAPACITY = 8;
+
+    private final InputQueue queue = new InputQueue(QUEUE_CAPACITY);
+    private final GameStats stats;
+    private final TurnHold hold = new TurnHold();
+
+    public KeyboardController(GameStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public void keyPressed(KeyEvent e) {
+        if (e.getKeyCode() == KeyEvent.VK_LEFT) {
+            queue.offer(TURN_LEFT, System.nanoTime());
+        } else if (e.getKeyCode() == KeyEvent.VK_RIGHT) {
+            queue.offer(TURN_RIGHT, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+    }
+
+    @Override
+    public void keyTyped(KeyEvent e) {
+    }
+
+    // Called by the engine at the start of each tick, on the simulation thread.
+    @Override
+    public void steer(GameEngine engine) {
+        SnakeBody body = engine.getBody();
+        int headCell = engine.getGrid().cellOf(body.getHeadX(), body.getHeadZ());
+        int turn = pollTurn(engine.getTick(), headCell, engine.getArena().getCellSize());
+        if (turn == LEFT) {
+            engine.turnLeft();
+        } else if (turn == RIGHT) {
+            engine.turnRight();
+        }
+    }
+
+    // Called by the arena in its plan phase, for the one snake this keyboard drives.
+    @Override
+    public int steer(MultiSnakeArena arena, int snake) {
+        SnakeBody body = arena.getBody(snake);
+        int headCell = arena.getGrid().cellOf(body.getHeadX(), body.getHeadZ());
+        return pollTurn(arena.getTick(), headCell, arena.getArena().getCellSize());
+    }
+
+    // Take the oldest queued press as a Pilot turn, if there is one and the hold since
+    // the last turn is over.
+    private int pollTurn(long tick, int headCell, float cellSize) {
+        if (queue.isEmpty() || !hold.allows(tick, headCell, cellSize)) {
+            return STRAIGHT;
+        }
+        hold.turned(tick, headCell);
+        byte command = queue.peekCommand();
+        long latency = System.nanoTime() - queue.peekTimestamp();
+        queue.remove();
+        stats.inputApplied(latency, queue.getRejected());
+
+        if (command == TURN_LEFT) {
+            GameLog.debug("turn_left", "tick", tick, "latencyMicros", latency / 1000);
+            return LEFT;
+        }
+        GameLog.debug("turn_right", "tick", tick, "latencyMicros", latency / 1000);
+        return RIGHT;
+    }
+}
@@ -0,0 +1,87 @@
+package Project;
+
+// Log-linear latency histogram in the style of HdrHistogram. Values below 64 ns get a
+// bucket each; above that every power of two is split into 32 buckets, so any recorded
+// value is reported within about 3% whatever its magnitude. Recording is a couple of
+// shifts and an array increment with no allocation, cheap enough for every frame and tick.
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+
+    private final long[] counts = new long[SUB_BUCKETS + (64 - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS];
+    private long totalCount;
+    private long maxValue;
+    private long sum;
+
+    public synchronized void record(long nanos) {
+        record(nanos, 1);
+    }
+
+    // Record the same value several times, e.g. the average of a batch of ticks.
+    public synchronized void record(long nanos, long times) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[bucketOf(nanos)] += times;
+        totalCount += times;
+        sum += nanos * times;
+        if (nanos > maxValue) {
+            maxValue = nanos;
+        }
+    }
+
+    public synchronized long getCount() {
+        return totalCount;
+    }
+
+    public synchronized long getMax() {
+        return maxValue;
+    }
+
+    public synchronized double getMean() {
+        return totalCount == 0 ? 0 : (double) sum / totalCount;
+    }
+
+    // Smallest recorded value that percent of the samples are at or below, rounded up to
+    // the top of its bucket.
+    public synchronized long getPercentile(double percent) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percent / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueIn(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    public synchronized void reset() {
+        java.util.Arrays.fill(counts, 0);
+        totalCount = 0;
+        maxValue = 0;
+        sum = 0;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift);  // In [HALF_SUB_BUCKETS, SUB_BUCKETS)
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (mantissa - HALF_SUB_BUCKETS);
+    }
+
+    private static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long mantissa = (bucket - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,195 @@
+package Project;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+// Loopback stand-in for a real network: a TCP proxy that holds every chunk of data for a
+// fixed one-way latency plus random jitter before passing it on, in both directions.
+// Chunks are never reordered, since TCP wouldn't deliver them out of order either, so
+// jitter shows up as bunching. Everything runs on one thread and one selector.
+public class LatencyProxy implements Runnable {
+    private final ServerSocketChannel serverChannel;
+    private final InetSocketAddress target;
+    private final long latencyNanos;
+    private final long jitterNanos;
+    private final Random random;
+    private final Selector selector;
+    private final List<Pipe> pipes = new ArrayList<>();
+    private volatile boolean running = true;
+
+    // A chunk read from one side, due to be written to the other
+    private static class Chunk {
+        final ByteBuffer data;
+        final long due;
+
+        Chunk(ByteBuffer data, long due) {
+            this.data = data;
+            this.due = due;
+        }
+    }
+
+    // One direction of one proxied connection
+    private static class Pipe {
+        final SocketChannel from;
+        final SocketChannel to;
+        final ArrayDeque<Chunk> chunks = new ArrayDeque<>();
+        long lastDue;
+
+        Pipe(SocketChannel from, SocketChannel to) {
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    public LatencyProxy(InetSocketAddress target, long latencyNanos, long jitterNanos, long seed) throws IOException {
+        this.target = target;
+        this.latencyNanos = latencyNanos;
+        this.jitterNanos = jitterNanos;
+        this.random = new Random(seed);
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) serverChannel.getLocalAddress();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                long wait = nextDue() - System.nanoTime();
+                if (wait > 0) {
+                    selector.select(Math.max(1, Math.min(wait / 1_000_000, 100)));
+                } else {
+                    selector.selectNow();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read((Pipe) key.attachment());
+                    }
+                }
+                deliver();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.err.println("Latency proxy stopped");
+        } finally {
+            for (Pipe pipe : pipes) {
+                close(pipe.from);
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void accept() throws IOException {
+        SocketChannel client = serverChannel.accept();
+        if (client == null) {
+            return;
+        }
+        SocketChannel server = SocketChannel.open(target);
+        for (SocketChannel channel : new SocketChannel[] {client, server}) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+        }
+        Pipe up = new Pipe(client, server);
+        Pipe down = new Pipe(server, client);
+        pipes.add(up);
+        pipes.add(down);
+        client.register(selector, SelectionKey.OP_READ, up);
+        server.register(selector, SelectionKey.OP_READ, down);
+    }
+
+    private void read(Pipe pipe) {
+        ByteBuffer data = ByteBuffer.allocate(16 << 10);
+        int read;
+        try {
+            read = pipe.from.read(data);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            close(pipe.from);
+            close(pipe.to);
+            return;
+        }
+        data.flip();
+        long jitter = jitterNanos == 0 ? 0 : (long) ((random.nextDouble() * 2 - 1) * jitterNanos);
+        long due = Math.max(pipe.lastDue, System.nanoTime() + latencyNanos + jitter);
+        pipe.lastDue = due;
+        pipe.chunks.add(new Chunk(data, due));
+    }
+
+    // Write out every chunk whose time has come. A socket that can't take a whole chunk
+    // keeps the rest for the next pass.
+    private void deliver() {
+        long now = System.nanoTime();
+        for (Pipe pipe : pipes) {
+            Chunk chunk;
+            while ((chunk = pipe.chunks.peek()) != null && chunk.due - now <= 0) {
+                try {
+                    pipe.to.write(chunk.data);
+                } catch (IOException e) {
+                    pipe.chunks.clear();
+                    close(pipe.from);
+                    break;
+                }
+                if (chunk.data.hasRemaining()) {
+                    break;
+                }
+                pipe.chunks.poll();
+            }
+        }
+    }
+
+    private long nextDue() {
+        long next = System.nanoTime() + 100_000_000L;
+        for (Pipe pipe : pipes) {
+            Chunk chunk = pipe.chunks.peek();
+            if (chunk != null && chunk.due - next < 0) {
+                next = chunk.due;
+            }
+        }
+        return next;
+    }
+
+    private static void close(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
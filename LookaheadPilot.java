@@ -0,0 +1,55 @@
+package Project;
+
+// Simple AI for MultiSnakeArena: looks a few cells ahead straight on, to the left and to
+// the right, and heads for whichever way stays clear longest, preferring straight on.
+// Stateless, so one instance can steer every snake from any number of threads.
+public class LookaheadPilot implements MultiSnakeArena.Pilot {
+    private final int lookahead;
+
+    public LookaheadPilot(int lookahead) {
+        this.lookahead = lookahead;
+    }
+
+    @Override
+    public int steer(MultiSnakeArena arena, int snake) {
+        float dirX = arena.getDirX(snake);
+        float dirZ = arena.getDirZ(snake);
+        int straight = clearCells(arena, snake, dirX, dirZ);
+        if (straight >= lookahead) {
+            return STRAIGHT;
+        }
+        int left = clearCells(arena, snake, dirZ, -dirX);
+        int right = clearCells(arena, snake, -dirZ, dirX);
+        if (straight >= left && straight >= right) {
+            return STRAIGHT;
+        }
+        return left >= right ? LEFT : RIGHT;
+    }
+
+    // Cells in a row, starting with the neighbour of the head's cell, that are inside the
+    // arena and hold neither wall nor body.
+    private int clearCells(MultiSnakeArena arena, int snake, float dirX, float dirZ) {
+        OccupancyGrid grid = arena.getGrid();
+        SnakeBody body = arena.getBody(snake);
+        float cellSize = arena.getArena().getCellSize();
+        float halfWidth = arena.getArena().getHalfWidth();
+        float halfDepth = arena.getArena().getHalfDepth();
+        // Unit steps of one cell along the heading
+        float stepX = Math.signum(dirX) * cellSize;
+        float stepZ = Math.signum(dirZ) * cellSize;
+        float x = body.getHeadX();
+        float z = body.getHeadZ();
+        for (int i = 0; i < lookahead; i++) {
+            x += stepX;
+            z += stepZ;
+            if (x < -halfWidth || x > halfWidth || z < -halfDepth || z > halfDepth) {
+                return i;
+            }
+            int cell = grid.cellOf(x, z);
+            if (grid.isWall(cell) || grid.isOccupied(cell)) {
+                return i;
+            }
+        }
+        return lookahead;
+    }
+}
@@ -2,6 +2,7 @@ package Project;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.File;
 
 public class MainApp extends JFrame {
     private static final long serialVersionUID = 1L;
@@ -10,6 +11,13 @@ public class MainApp extends JFrame {
     private JPanel mainPanel;
     private HomePanel homePanel;
     private GamePanel gamePanel;
+    private GameOverPanel gameOverPanel;
+    private ScoreStore scoreStore;
+    private AudioEngine audioEngine;
+    private TextureCache textureCache;
+
+    // Decoded map textures kept in memory; override with -Dsnake.textureBudgetMB
+    private static final long TEXTURE_BUDGET_MB = Long.getLong("snake.textureBudgetMB", 64);
 
     // We store a static reference so that GamePanel (or Snake) can call showHome()
     public static MainApp instance;
@@ -27,6 +35,19 @@ public class MainApp extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null); // center on screen
 
+        // Sounds are decoded once on the audio thread, not on every play
+        audioEngine = new AudioEngine("apple_eaten.wav");
+        audioEngine.start();
+
+        // Map textures are decoded in the background while the home screen is up
+        textureCache = new TextureCache(TEXTURE_BUDGET_MB * 1024 * 1024);
+        textureCache.preload("groundTexture", "oceanTexture");
+
+        // Score history is mapped and indexed on its own thread
+        scoreStore = new ScoreStore(new File(System.getProperty("snake.scoreFile", "scores.dat")));
+        scoreStore.open();
+        Runtime.getRuntime().addShutdownHook(new Thread(scoreStore::close, "score-store-close"));
+
         cardLayout = new CardLayout();
         mainPanel = new JPanel(cardLayout);
         getContentPane().add(mainPanel, BorderLayout.CENTER);
@@ -37,14 +58,20 @@ public class MainApp extends JFrame {
         mainPanel.add(homePanel, "home");
         mainPanel.add(gamePanel, "game");
 
+        // One game-over panel, reused for every round
+        gameOverPanel = new GameOverPanel(this);
+        mainPanel.add(gameOverPanel, "gameover");
+
         // Show home screen on startup.
         cardLayout.show(mainPanel, "home");
     }
     
     public void showGameOverScreen() {
-        // Create a new instance of GameOverPanel and add it to the card layout
-        GameOverPanel gameOverPanel = new GameOverPanel(this);
-        mainPanel.add(gameOverPanel, "gameover");
+        // Refresh the shared GameOverPanel and bring it to the front
+        gamePanel.saveScore();
+        gameOverPanel.setScore(gamePanel.getScore(), scoreStore.getBestScore(selectedMap, selectedDifficulty));
+        gamePanel.writeStats();
+        gamePanel.writeReplay();
         cardLayout.show(mainPanel, "gameover");
     }
 
@@ -63,6 +90,12 @@ public class MainApp extends JFrame {
         gamePanel.start3D();
     }
 
+    // Play a recorded game on the default map.
+    public void showReplay(Replay replay, double speed) {
+        gamePanel.setPlayback(replay, speed);
+        showGame("groundTexture", "Easy");
+    }
+
     // Called by GamePanel when the snake hits the border.
     public void showHome() {
         gamePanel.stop3D(); // optional cleanup
@@ -78,7 +111,39 @@ public class MainApp extends JFrame {
         return selectedDifficulty;
     }
 
+    public AudioEngine getAudioEngine() {
+        return audioEngine;
+    }
+
+    public ScoreStore getScoreStore() {
+        return scoreStore;
+    }
+
+    public TextureCache getTextureCache() {
+        return textureCache;
+    }
+
     public static void main(String[] args) {
+        // --headless runs the simulation benchmark without opening a window
+        if (args.length > 0 && args[0].equals("--headless")) {
+            HeadlessBenchmark.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // --replay <file> [--headless] [--speed N] plays back a recorded game
+        if (args.length > 0 && args[0].equals("--replay")) {
+            ReplayPlayer.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // --selfplay [--games N] [--threads N] ... plays batches of autopilot games headless
+        if (args.length > 0 && args[0].equals("--selfplay")) {
+            SelfPlayRunner.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // --server [--port P] [--snakes N] ... runs the multiplayer server with no window
+        if (args.length > 0 && args[0].equals("--server")) {
+            GameServer.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         SwingUtilities.invokeLater(() -> {
             new MainApp().setVisible(true);
         });
@@ -0,0 +1,376 @@
+package Project;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Many snakes, AI or player, sharing one arena, occupancy grid and set of apples. Built
+// for headless runs with thousands of snakes; the single-player game keeps GameEngine.
+//
+// Each tick runs in four phases:
+//  1. plan, in parallel over partitions of the snakes: each live snake's pilot picks a
+//     turn, and the cell the head is about to enter is checked against the border, the
+//     walls and the grid as it stood at the start of the tick. A task only writes the
+//     slots of its own snakes, so every partitioning computes the same plans.
+//  2. claim, sequentially: snakes entering the same cell all die (head-to-head). This
+//     is one array write per moving snake.
+//  3. move, in parallel again: every surviving snake moves its own body and notes the
+//     cell its tail left.
+//  4. merge, sequentially in snake order: the grid counts follow the moves, apples are
+//     eaten, and dead snakes leave the grid and start again at a random free cell.
+// All randomness comes from one seeded Random used only in the sequential phases, so a
+// seed produces the same game for any number of threads. The sequential phases only
+// touch the shared grid and apples, a few array entries per snake.
+public class MultiSnakeArena implements AutoCloseable {
+    // Chooses a snake's turn. Called during the parallel plan phase, so it may read the
+    // grid, the apples and its own snake, but must not change anything.
+    public interface Pilot {
+        int STRAIGHT = 0;
+        int LEFT = 1;
+        int RIGHT = -1;
+
+        int steer(MultiSnakeArena arena, int snake);
+    }
+
+    public enum Outcome { MOVE, STAY, BORDER, WALL, BODY, HEAD }
+
+    private static final int PARTITION_SIZE = 64; // Snakes per leaf task
+
+    private final ArenaConfig arena;
+    private final OccupancyGrid grid;
+    private final Random random;
+    private final ForkJoinPool pool; // null when running on the caller's thread only
+
+    private final int snakeCount;
+    private final SnakeBody[] bodies;
+    private final Pilot[] pilots;
+    private final float[] dirX;
+    private final float[] dirZ;
+    private final int[] applesEaten;
+    // Written by the plan phase, one slot per snake
+    private final Outcome[] outcomes;
+    private final int[] nextCells;
+    // Written by the move phase: the cell each moved snake's tail left
+    private final int[] tailCells;
+
+    // Apples by cell, for O(1) lookup however many there are
+    private final float[] appleX;
+    private final float[] appleZ;
+    private final int[] appleAtCell;
+
+    // Head-to-head detection: claimStamp[cell] == tick when a head enters cell this tick
+    private final long[] claimStamp;
+    private final int[] claimOwner;
+
+    private long tick;
+    private long deaths;
+
+    public MultiSnakeArena(ArenaConfig arena, int snakeCount, int appleCount, int threads, long seed) {
+        this.arena = arena;
+        this.grid = OccupancyGrid.forArena(arena);
+        // Apples and snakes only ever start in the spawn area; leave most of it open
+        int spawnCells = grid.countOpenCells(arena.getSpawnHalfWidth(), arena.getSpawnHalfDepth());
+        if (appleCount > spawnCells / 4 || appleCount + snakeCount > spawnCells) {
+            throw new IllegalArgumentException("Too many apples or snakes for the arena's " + spawnCells
+                    + " spawn cells: " + appleCount + " apples, " + snakeCount + " snakes");
+        }
+        this.random = new Random(seed);
+        this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        this.snakeCount = snakeCount;
+
+        bodies = new SnakeBody[snakeCount];
+        pilots = new Pilot[snakeCount];
+        dirX = new float[snakeCount];
+        dirZ = new float[snakeCount];
+        applesEaten = new int[snakeCount];
+        outcomes = new Outcome[snakeCount];
+        Arrays.fill(outcomes, Outcome.STAY);
+        nextCells = new int[snakeCount];
+        tailCells = new int[snakeCount];
+
+        int cells = arena.getCols() * arena.getRows();
+        claimStamp = new long[cells];
+        Arrays.fill(claimStamp, -1);
+        claimOwner = new int[cells];
+        appleAtCell = new int[cells];
+        Arrays.fill(appleAtCell, -1);
+        appleX = new float[appleCount];
+        appleZ = new float[appleCount];
+
+        for (int i = 0; i < snakeCount; i++) {
+            bodies[i] = new SnakeBody(0f, 0f);
+            spawn(i);
+        }
+        for (int a = 0; a < appleCount; a++) {
+            placeApple(a);
+        }
+    }
+
+    public void setPilot(int snake, Pilot pilot) {
+        pilots[snake] = pilot;
+    }
+
+    // Run one tick for every snake.
+    public void tick() {
+        runParallel(false);
+        claim();
+        runParallel(true);
+        merge();
+        tick++;
+    }
+
+    private void runParallel(boolean move) {
+        if (pool == null) {
+            runPhase(move, 0, snakeCount);
+        } else {
+            pool.invoke(new PhaseTask(move, 0, snakeCount));
+        }
+    }
+
+    private void runPhase(boolean move, int from, int to) {
+        if (move) {
+            move(from, to);
+        } else {
+            plan(from, to);
+        }
+    }
+
+    // One of the parallel phases over snakes [from, to), split down to PARTITION_SIZE.
+    private class PhaseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final boolean move;
+        private final int from;
+        private final int to;
+
+        PhaseTask(boolean move, int from, int to) {
+            this.move = move;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARTITION_SIZE) {
+                runPhase(move, from, to);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new PhaseTask(move, from, mid), new PhaseTask(move, mid, to));
+            }
+        }
+    }
+
+    // Phase 1 for snakes [from, to): steer and check the next cell. Reads shared state,
+    // writes only these snakes' slots.
+    private void plan(int from, int to) {
+        float halfWidth = arena.getHalfWidth();
+        float halfDepth = arena.getHalfDepth();
+        for (int i = from; i < to; i++) {
+            Pilot pilot = pilots[i];
+            int turn = pilot == null ? Pilot.STRAIGHT : pilot.steer(this, i);
+            float x = dirX[i];
+            if (turn == Pilot.LEFT) {
+                dirX[i] = dirZ[i];
+                dirZ[i] = -x;
+            } else if (turn == Pilot.RIGHT) {
+                dirX[i] = -dirZ[i];
+                dirZ[i] = x;
+            }
+
+            SnakeBody body = bodies[i];
+            float nextX = body.getHeadX() + dirX[i];
+            float nextZ = body.getHeadZ() + dirZ[i];
+            if (nextX < -halfWidth || nextX > halfWidth || nextZ < -halfDepth || nextZ > halfDepth) {
+                outcomes[i] = Outcome.BORDER;
+                continue;
+            }
+            int headCell = grid.cellOf(body.getHeadX(), body.getHeadZ());
+            int nextCell = grid.cellOf(nextX, nextZ);
+            nextCells[i] = nextCell;
+            if (nextCell == headCell) {
+                outcomes[i] = Outcome.STAY;
+            } else if (grid.isWall(nextCell)) {
+                outcomes[i] = Outcome.WALL;
+            } else {
+                // As in GameEngine, the snake's own tail leaves this tick and doesn't count
+                int tailCell = grid.cellOf(body.getTailX(), body.getTailZ());
+                int occupants = grid.count(nextCell) - (tailCell == nextCell ? 1 : 0);
+                outcomes[i] = occupants > 0 ? Outcome.BODY : Outcome.MOVE;
+            }
+        }
+    }
+
+    // Phase 2: two or more heads entering one cell all die.
+    private void claim() {
+        for (int i = 0; i < snakeCount; i++) {
+            if (outcomes[i] != Outcome.MOVE) {
+                continue;
+            }
+            int cell = nextCells[i];
+            if (claimStamp[cell] == tick) {
+                outcomes[i] = Outcome.HEAD;
+                outcomes[claimOwner[cell]] = Outcome.HEAD;
+            } else {
+                claimStamp[cell] = tick;
+                claimOwner[cell] = i;
+            }
+        }
+    }
+
+    // Phase 3 for snakes [from, to): move the survivors' bodies. Writes only these
+    // snakes' bodies and slots; the grid is left to the merge.
+    private void move(int from, int to) {
+        for (int i = from; i < to; i++) {
+            Outcome outcome = outcomes[i];
+            if (outcome != Outcome.MOVE && outcome != Outcome.STAY) {
+                continue;
+            }
+            SnakeBody body = bodies[i];
+            tailCells[i] = grid.cellOf(body.getTailX(), body.getTailZ());
+            body.move(dirX[i], dirZ[i]);
+        }
+    }
+
+    // Phase 4, in snake order.
+    private void merge() {
+        for (int i = 0; i < snakeCount; i++) {
+            Outcome outcome = outcomes[i];
+            if (outcome == Outcome.MOVE || outcome == Outcome.STAY) {
+                grid.removeCell(tailCells[i]);
+                grid.addCell(nextCells[i]);
+                // Apples never sit under a head, so only a head entering a cell can eat
+                if (outcome == Outcome.MOVE) {
+                    eatApple(i, nextCells[i]);
+                }
+            }
+        }
+
+        for (int i = 0; i < snakeCount; i++) {
+            Outcome outcome = outcomes[i];
+            if (outcome != Outcome.MOVE && outcome != Outcome.STAY) {
+                deaths++;
+                SnakeBody body = bodies[i];
+                for (long seq = body.getTailSeq(); seq <= body.getHeadSeq(); seq++) {
+                    grid.remove(body.getX(seq), body.getZ(seq));
+                }
+                spawn(i);
+            }
+        }
+    }
+
+    // Apples sit at cell centres and are eaten by the first snake whose head is in their
+    // cell, which is the same reach as GameEngine's distance test without the search.
+    private void eatApple(int snake, int cell) {
+        int apple = appleAtCell[cell];
+        if (apple < 0) {
+            return;
+        }
+        SnakeBody body = bodies[snake];
+        applesEaten[snake]++;
+        body.ensureCapacity(body.length() + GameEngine.GROWTH_PER_APPLE);
+        for (int g = 0; g < GameEngine.GROWTH_PER_APPLE; g++) {
+            body.grow();
+            grid.add(body.getTailX(), body.getTailZ());
+        }
+        appleAtCell[cell] = -1;
+        grid.release(cell);
+        placeApple(apple);
+    }
+
+    // Start a snake over at the centre of a random free cell, heading a random way.
+    private void spawn(int snake) {
+        int cell = randomFreeCell();
+        float x = grid.cellCenterX(cell);
+        float z = grid.cellCenterZ(cell);
+        bodies[snake].reset(x, z);
+        grid.add(x, z);
+        switch (random.nextInt(4)) {
+            case 0: dirX[snake] = 0f; dirZ[snake] = GameEngine.STEP; break;
+            case 1: dirX[snake] = GameEngine.STEP; dirZ[snake] = 0f; break;
+            case 2: dirX[snake] = 0f; dirZ[snake] = -GameEngine.STEP; break;
+            default: dirX[snake] = -GameEngine.STEP; dirZ[snake] = 0f; break;
+        }
+    }
+
+    // Apple cells are reserved in the grid, so apples never share a cell and appleAtCell
+    // holds at most one each. Throws once no free cell is left in the spawn area.
+    private void placeApple(int apple) {
+        int cell = randomFreeCell();
+        grid.reserve(cell);
+        appleAtCell[cell] = apple;
+        appleX[apple] = grid.cellCenterX(cell);
+        appleZ[apple] = grid.cellCenterZ(cell);
+    }
+
+    private int randomFreeCell() {
+        int cell = grid.randomFreeCell(random, arena.getSpawnHalfWidth(), arena.getSpawnHalfDepth());
+        if (cell < 0) {
+            throw new IllegalStateException("Arena is full");
+        }
+        return cell;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    public ArenaConfig getArena() {
+        return arena;
+    }
+
+    public OccupancyGrid getGrid() {
+        return grid;
+    }
+
+    public int getSnakeCount() {
+        return snakeCount;
+    }
+
+    public SnakeBody getBody(int snake) {
+        return bodies[snake];
+    }
+
+    public float getDirX(int snake) {
+        return dirX[snake];
+    }
+
+    public float getDirZ(int snake) {
+        return dirZ[snake];
+    }
+
+    public int getApplesEaten(int snake) {
+        return applesEaten[snake];
+    }
+
+    // How the snake's latest tick went.
+    public Outcome getOutcome(int snake) {
+        return outcomes[snake];
+    }
+
+    public int getAppleCount() {
+        return appleX.length;
+    }
+
+    public float getAppleX(int apple) {
+        return appleX[apple];
+    }
+
+    public float getAppleZ(int apple) {
+        return appleZ[apple];
+    }
+
+    public boolean hasApple(int cell) {
+        return appleAtCell[cell] >= 0;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public long getDeaths() {
+        return deaths;
+    }
+}
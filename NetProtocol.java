@@ -0,0 +1,124 @@
+package Project;
+
+import java.nio.ByteBuffer;
+
+// Wire format shared by GameServer and GameClient. Every message is a frame: a 4-byte
+// big-endian length covering the rest of the frame, a type byte, then the payload.
+// Integers in payloads are LEB128 varints; signed ones are zigzag-encoded first so small
+// negative steps stay one byte.
+//
+//   HELLO  server -> client  snakeId, cols, rows, cellSize (float), layout, snakes, apples
+//   FULL   server -> client  tick (varlong); per snake its cell count, then its cells from
+//                            tail to head, the first absolute and the rest as signed steps;
+//                            then every apple's cell
+//   DELTA  server -> client  tick (varlong); per changed snake (id gap from the previous
+//                            one, at least 1) a flags byte, then the head's signed step if
+//                            DELTA_HEAD, the number of cells dropped off the tail if
+//                            DELTA_TAIL, the snake's new cell if DELTA_RESET; a 0 gap ends
+//                            the list. Then per moved apple (gap, new cell), ended by 0
+//   ACK    server -> client  tick (varlong), number of the client's turns the server has
+//                            resolved, a flags byte (ACK_RESPAWNED, ACK_TURNED), then the
+//                            client's snake as of that tick: head x, head z, dir x, dir z
+//                            (floats). With ACK_TURNED, the tick (varlong) and head cell of
+//                            the snake's last turn follow, which hold its next one (see
+//                            TurnHold). Sent only to that client, after a tick that applied
+//                            one of its turns or respawned its snake
+//   INPUT  client -> server  sequence number of the first turn, turn count, then per turn
+//                            the tick it is meant for (varlong, 0 for as soon as possible)
+//                            and KeyboardController.TURN_LEFT / TURN_RIGHT. A turn for tick
+//                            T is applied in the tick run while the arena's tick is T, or
+//                            in the first tick after it arrives if that's too late, and in
+//                            either case not before the TurnHold since the last turn allows
+//
+// A snake is sent as the cells it covers, not as its segments: a segment is a hundredth
+// of a unit and a cell a fifth, so a snake changes cells only every 20 ticks.
+public class NetProtocol {
+    public static final byte HELLO = 1;
+    public static final byte FULL = 2;
+    public static final byte DELTA = 3;
+    public static final byte INPUT = 4;
+    public static final byte ACK = 5;
+
+    public static final int DELTA_HEAD = 1;
+    public static final int DELTA_TAIL = 2;
+    public static final int DELTA_RESET = 4;
+
+    public static final int ACK_RESPAWNED = 1;
+    public static final int ACK_TURNED = 2;
+
+    public static final int HEADER_SIZE = 5; // Length and type
+    public static final int MAX_FRAME = 16 << 20;
+
+    // Start a frame of the given type; returns the offset to pass to endFrame.
+    public static int beginFrame(ByteBuffer buf, byte type) {
+        int start = buf.position();
+        buf.putInt(0);
+        buf.put(type);
+        return start;
+    }
+
+    // Fill in the length of the frame begun at start.
+    public static void endFrame(ByteBuffer buf, int start) {
+        buf.putInt(start, buf.position() - start - 4);
+    }
+
+    public static void putVarInt(ByteBuffer buf, int value) {
+        while ((value & ~0x7F) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    public static int getVarInt(ByteBuffer buf) {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buf.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    public static void putVarLong(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+
+    public static long getVarLong(ByteBuffer buf) {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = buf.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    public static void putSignedVarInt(ByteBuffer buf, int value) {
+        putVarInt(buf, (value << 1) ^ (value >> 31));
+    }
+
+    public static int getSignedVarInt(ByteBuffer buf) {
+        int n = getVarInt(buf);
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    // buf itself if it has room for extra more bytes, otherwise a larger copy of it.
+    public static ByteBuffer ensureRoom(ByteBuffer buf, int extra) {
+        if (buf.remaining() >= extra) {
+            return buf;
+        }
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + extra));
+        buf.flip();
+        bigger.put(buf);
+        return bigger;
+    }
+}
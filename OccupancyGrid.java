@@ -0,0 +1,196 @@
+package Project;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Per-cell segment counts over the arena floor. The engine adds the head's cell when it
+// moves in and removes the tail's cell when it moves out, so the grid always matches the
+// body without ever being rebuilt. Counts rather than bits, because segments overlap
+// (a growth burst stacks seven of them on the tail). Wall cells are marked separately and
+// survive clear(), as do reserved cells: ones a caller has put something on, such as an
+// apple, which randomFreeCell() must not hand out again but a snake may still enter.
+public class OccupancyGrid {
+    private final int cols;
+    private final int rows;
+    private final float minX;
+    private final float minZ;
+    private final float cellSize;
+    private final int[] counts;
+    private final boolean[] walls;
+    private final boolean[] reserved;
+    private int occupiedCells;
+
+    public OccupancyGrid(float minX, float minZ, int cols, int rows, float cellSize) {
+        this.cellSize = cellSize;
+        this.minX = minX;
+        this.minZ = minZ;
+        this.cols = cols;
+        this.rows = rows;
+        this.counts = new int[cols * rows];
+        this.walls = new boolean[cols * rows];
+        this.reserved = new boolean[cols * rows];
+    }
+
+    // The grid for an arena, with its walls marked.
+    public static OccupancyGrid forArena(ArenaConfig arena) {
+        OccupancyGrid grid = new OccupancyGrid(-arena.getHalfWidth(), -arena.getHalfDepth(),
+                arena.getCols(), arena.getRows(), arena.getCellSize());
+        for (ArenaConfig.Wall wall : arena.getWalls()) {
+            grid.addWall(wall.getMinX(), wall.getMinZ(), wall.getMaxX(), wall.getMaxZ());
+        }
+        return grid;
+    }
+
+    // Mark every cell whose centre lies inside the rectangle as wall.
+    public void addWall(float wallMinX, float wallMinZ, float wallMaxX, float wallMaxZ) {
+        for (int row = 0; row < rows; row++) {
+            float z = minZ + (row + 0.5f) * cellSize;
+            if (z < wallMinZ || z > wallMaxZ) {
+                continue;
+            }
+            for (int col = 0; col < cols; col++) {
+                float x = minX + (col + 0.5f) * cellSize;
+                if (x >= wallMinX && x <= wallMaxX) {
+                    walls[row * cols + col] = true;
+                }
+            }
+        }
+    }
+
+    public boolean isWall(int cell) {
+        return walls[cell];
+    }
+
+    public void reserve(int cell) {
+        reserved[cell] = true;
+    }
+
+    public void release(int cell) {
+        reserved[cell] = false;
+    }
+
+    public boolean isReserved(int cell) {
+        return reserved[cell];
+    }
+
+    // Cell index for a world position, clamped to the arena.
+    public int cellOf(float x, float z) {
+        return cellOf(x, z, minX, minZ, cols, rows, cellSize);
+    }
+
+    // The same for a grid with the given origin and size, without building one.
+    static int cellOf(float x, float z, float minX, float minZ, int cols, int rows, float cellSize) {
+        int col = (int) ((x - minX) / cellSize);
+        int row = (int) ((z - minZ) / cellSize);
+        if (col < 0) col = 0; else if (col >= cols) col = cols - 1;
+        if (row < 0) row = 0; else if (row >= rows) row = rows - 1;
+        return row * cols + col;
+    }
+
+    public void add(float x, float z) {
+        addCell(cellOf(x, z));
+    }
+
+    public void remove(float x, float z) {
+        removeCell(cellOf(x, z));
+    }
+
+    public void addCell(int cell) {
+        if (counts[cell]++ == 0) {
+            occupiedCells++;
+        }
+    }
+
+    public void removeCell(int cell) {
+        if (--counts[cell] == 0) {
+            occupiedCells--;
+        }
+    }
+
+    public int count(int cell) {
+        return counts[cell];
+    }
+
+    public boolean isOccupied(int cell) {
+        return counts[cell] != 0;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        occupiedCells = 0;
+    }
+
+    public int getOccupiedCells() {
+        return occupiedCells;
+    }
+
+    public float cellCenterX(int cell) {
+        return minX + (cell % cols + 0.5f) * cellSize;
+    }
+
+    public float cellCenterZ(int cell) {
+        return minZ + (cell / cols + 0.5f) * cellSize;
+    }
+
+    // Number of cells that aren't walls with centres within +/-spawnHalfWidth in x and
+    // +/-spawnHalfDepth in z: the most that randomFreeCell() can ever hand out.
+    public int countOpenCells(float spawnHalfWidth, float spawnHalfDepth) {
+        int lo = cellOf(-spawnHalfWidth + cellSize / 2, -spawnHalfDepth + cellSize / 2);
+        int hi = cellOf(spawnHalfWidth - cellSize / 2, spawnHalfDepth - cellSize / 2);
+        int open = 0;
+        for (int row = lo / cols; row <= hi / cols; row++) {
+            for (int col = lo % cols; col <= hi % cols; col++) {
+                if (!walls[row * cols + col]) {
+                    open++;
+                }
+            }
+        }
+        return open;
+    }
+
+    // Pick a uniformly random free cell whose centre lies within +/-spawnHalfWidth in x
+    // and +/-spawnHalfDepth in z. Free means no body, no wall and not reserved. A few
+    // blind draws settle it while the snake is small; past that the free cells in the
+    // spawn area are counted and the chosen one is found in a single scan. Returns -1 if
+    // the spawn area is full.
+    public int randomFreeCell(Random random, float spawnHalfWidth, float spawnHalfDepth) {
+        int lo = cellOf(-spawnHalfWidth + cellSize / 2, -spawnHalfDepth + cellSize / 2);
+        int hi = cellOf(spawnHalfWidth - cellSize / 2, spawnHalfDepth - cellSize / 2);
+        int colLo = lo % cols, rowLo = lo / cols;
+        int colHi = hi % cols, rowHi = hi / cols;
+        int spanCols = colHi - colLo + 1;
+        int spanRows = rowHi - rowLo + 1;
+
+        for (int attempt = 0; attempt < 8; attempt++) {
+            int cell = (rowLo + random.nextInt(spanRows)) * cols + colLo + random.nextInt(spanCols);
+            if (isFree(cell)) {
+                return cell;
+            }
+        }
+
+        int free = 0;
+        for (int row = rowLo; row <= rowHi; row++) {
+            for (int col = colLo; col <= colHi; col++) {
+                if (isFree(row * cols + col)) {
+                    free++;
+                }
+            }
+        }
+        if (free == 0) {
+            return -1;
+        }
+        int target = random.nextInt(free);
+        for (int row = rowLo; row <= rowHi; row++) {
+            for (int col = colLo; col <= colHi; col++) {
+                if (isFree(row * cols + col) && target-- == 0) {
+                    return row * cols + col;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private boolean isFree(int cell) {
+        return counts[cell] == 0 && !walls[cell] && !reserved[cell];
+    }
+}
@@ -0,0 +1,241 @@
+package Project;
+
+// Autopilot: steers the snake along a shortest path to the apple, found by breadth-first
+// search over the occupancy grid with wall and body cells blocked. Every move costs the
+// same, so BFS finds the same path length A* would without a priority queue.
+//
+// The search runs only when the head enters a new cell or the apple moves; in between
+// the snake follows the planned first step, turning when its head reaches the middle of
+// the cell so it enters the next cell on its centre line. When the apple can't be
+// reached the snake heads for the free neighbour with the most room behind it.
+//
+// Search state lives in int arrays sized to the arena and reused for every search, so
+// steering allocates nothing. One instance drives one engine at a time.
+//
+//   java -cp <classpath> Project.PathfindingController [--games N] [--seed S]
+public class PathfindingController implements GameController {
+    private ArenaConfig arena;
+    private int cols;
+    private int rows;
+    // BFS frontier, parent links and visit marks. A cell is visited in the current search
+    // when mark[cell] == epoch, so nothing needs clearing between searches.
+    private int[] queue;
+    private int[] parent;
+    private int[] mark;
+    private int epoch;
+
+    private int plannedFrom = -1;
+    private int plannedApple = -1;
+    private int nextCell = -1;
+    private long searches;
+
+    @Override
+    public void steer(GameEngine engine) {
+        if (engine.getArena() != arena) {
+            resize(engine.getArena());
+        }
+        OccupancyGrid grid = engine.getGrid();
+        SnakeBody body = engine.getBody();
+        int headCell = grid.cellOf(body.getHeadX(), body.getHeadZ());
+        int appleCell = grid.cellOf(engine.getAppleX(), engine.getAppleZ());
+        if (headCell != plannedFrom || appleCell != plannedApple) {
+            plannedFrom = headCell;
+            plannedApple = appleCell;
+            nextCell = findPath(grid, headCell, appleCell);
+            if (nextCell < 0) {
+                nextCell = roomiestNeighbour(grid, headCell);
+            }
+            searches++;
+        }
+        if (nextCell < 0) {
+            return; // Boxed in; nothing left to try
+        }
+
+        // Heading towards the next cell, as -1/0/+1 per axis
+        int wantX = nextCell % cols - headCell % cols;
+        int wantZ = nextCell / cols - headCell / cols;
+        int dirX = (int) Math.signum(engine.getDirX());
+        int dirZ = (int) Math.signum(engine.getDirZ());
+        if (wantX == dirX && wantZ == dirZ) {
+            return;
+        }
+
+        // Turn on the cell's centre line, so the new heading runs through cell centres
+        float progress = dirX != 0
+                ? (body.getHeadX() - grid.cellCenterX(headCell)) * dirX
+                : (body.getHeadZ() - grid.cellCenterZ(headCell)) * dirZ;
+        if (progress < -GameEngine.STEP / 2) {
+            return;
+        }
+        // A left turn maps (x, z) to (z, -x); the reverse heading takes two turns, so
+        // it starts with a left one
+        if (wantX == dirZ && wantZ == -dirX || wantX == -dirX && wantZ == -dirZ) {
+            engine.turnLeft();
+        } else {
+            engine.turnRight();
+        }
+    }
+
+    // Drop the plan from the previous game. Call whenever the engine this steers is
+    // reset or replaced: a new game can start with its head and apple in the very cells
+    // the old plan was made for, and would then follow a stale first step.
+    public void reset() {
+        plannedFrom = -1;
+        plannedApple = -1;
+        nextCell = -1;
+    }
+
+    private void resize(ArenaConfig newArena) {
+        arena = newArena;
+        cols = newArena.getCols();
+        rows = newArena.getRows();
+        queue = new int[cols * rows];
+        parent = new int[cols * rows];
+        mark = new int[cols * rows];
+        epoch = 0;
+        reset();
+    }
+
+    // Breadth-first search from the head's cell. Returns the first cell on a shortest
+    // path to target, or -1 if the target can't be reached.
+    private int findPath(OccupancyGrid grid, int from, int target) {
+        if (from == target) {
+            return -1;
+        }
+        startSearch(from);
+        int head = 0;
+        int tail = 1;
+        queue[0] = from;
+        while (head < tail) {
+            int cell = queue[head++];
+            int col = cell % cols;
+            int row = cell / cols;
+            for (int n = 0; n < 4; n++) {
+                int next = neighbour(col, row, n);
+                if (next < 0 || mark[next] == epoch || isBlocked(grid, next)) {
+                    continue;
+                }
+                mark[next] = epoch;
+                parent[next] = cell;
+                if (next == target) {
+                    // Walk back to the step leaving the head's cell
+                    while (parent[next] != from) {
+                        next = parent[next];
+                    }
+                    return next;
+                }
+                queue[tail++] = next;
+            }
+        }
+        return -1;
+    }
+
+    // The unblocked neighbour of the head's cell from which the most cells can be
+    // reached, or -1 if every neighbour is blocked.
+    private int roomiestNeighbour(OccupancyGrid grid, int from) {
+        int best = -1;
+        int bestRoom = -1;
+        for (int n = 0; n < 4; n++) {
+            int start = neighbour(from % cols, from / cols, n);
+            if (start < 0 || isBlocked(grid, start)) {
+                continue;
+            }
+            int room = floodCount(grid, from, start);
+            if (room > bestRoom) {
+                best = start;
+                bestRoom = room;
+            }
+        }
+        return best;
+    }
+
+    // Number of free cells reachable from start without passing through the head's cell.
+    private int floodCount(OccupancyGrid grid, int from, int start) {
+        startSearch(from);
+        mark[start] = epoch;
+        int head = 0;
+        int tail = 1;
+        queue[0] = start;
+        while (head < tail) {
+            int cell = queue[head++];
+            int col = cell % cols;
+            int row = cell / cols;
+            for (int n = 0; n < 4; n++) {
+                int next = neighbour(col, row, n);
+                if (next >= 0 && mark[next] != epoch && !isBlocked(grid, next)) {
+                    mark[next] = epoch;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail;
+    }
+
+    private void startSearch(int from) {
+        if (++epoch == 0) {
+            java.util.Arrays.fill(mark, 0); // Marks wrapped around; start them over
+            epoch = 1;
+        }
+        mark[from] = epoch;
+    }
+
+    // Neighbour n (0 +x, 1 +z, 2 -x, 3 -z) of a cell, or -1 past the arena's edge.
+    private int neighbour(int col, int row, int n) {
+        switch (n) {
+            case 0: return col + 1 < cols ? row * cols + col + 1 : -1;
+            case 1: return row + 1 < rows ? (row + 1) * cols + col : -1;
+            case 2: return col > 0 ? row * cols + col - 1 : -1;
+            default: return row > 0 ? (row - 1) * cols + col : -1;
+        }
+    }
+
+    private static boolean isBlocked(OccupancyGrid grid, int cell) {
+        return grid.isWall(cell) || grid.isOccupied(cell);
+    }
+
+    // Number of path searches run so far.
+    public long getSearches() {
+        return searches;
+    }
+
+    // Play whole games headless under the autopilot and report the decision rate.
+    public static void main(String[] args) {
+        int games = 10;
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games":
+                    games = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: PathfindingController [--games N] [--seed S]");
+                    System.exit(2);
+            }
+        }
+
+        ArenaConfig arena = ArenaConfig.fromSystemProperties();
+        PathfindingController controller = new PathfindingController();
+        long ticks = 0;
+        long start = System.nanoTime();
+        System.out.printf("%-6s %10s %8s %8s%n", "game", "ticks", "apples", "death");
+        for (int game = 0; game < games; game++) {
+            GameEngine engine = new GameEngine(arena, 0f, 0f, arena.getStartAppleX(), arena.getStartAppleZ(), seed + game);
+            engine.setController(controller);
+            controller.reset();
+            // The autopilot can chase its own tail forever; cap the round
+            while (!engine.isGameOver() && engine.getTick() < 10_000_000L) {
+                engine.step();
+            }
+            ticks += engine.getTick();
+            System.out.printf("%-6d %10d %8d %8s%n",
+                    game, engine.getTick(), engine.getApplesEaten(), engine.getDeathCause());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d ticks, %d searches in %.2f s: %.0f ticks/sec, %.0f searches/sec%n",
+                ticks, controller.getSearches(), seconds, ticks / seconds, controller.getSearches() / seconds);
+    }
+}
@@ -0,0 +1,49 @@
+package Project;
+
+// Fixed serpentine tour of the arena used to keep a snake alive in benchmarks.
+// Starting at (START_X, START_Z) heading +z, it runs up the left edge, snakes down and
+// up through 19 columns 0.4 units apart, and returns along the bottom edge to the start.
+// Lanes are two cells apart, so the tour never crosses itself and a snake of up to
+// CYCLE_TICKS segments can follow it forever.
+public class PatrolRoute {
+    public static final float START_X = -4f;
+    public static final float START_Z = -4f;
+
+    private static final int EDGE = 800;      // 8 units
+    private static final int COLUMN = 760;    // 7.6 units
+    private static final int CONNECTOR = 40;  // 0.4 units
+    private static final int COLUMNS = 19;
+
+    public static final int CYCLE_TICKS =
+            EDGE + COLUMNS * (CONNECTOR + COLUMN) + CONNECTOR + COLUMN;
+
+    // Turn to apply before each move of the cycle: 1 = left, -1 = right, 0 = straight
+    private static final byte[] TURNS = new byte[CYCLE_TICKS];
+
+    static {
+        int move = EDGE;
+        for (int column = 1; column <= COLUMNS; column++) {
+            byte turn = (byte) (column % 2 == 1 ? 1 : -1);
+            TURNS[move] = turn;
+            move += CONNECTOR;
+            TURNS[move] = turn;
+            move += column == COLUMNS ? COLUMN + CONNECTOR : COLUMN;
+        }
+        TURNS[move] = 1;  // West along the bottom edge
+        TURNS[0] = 1;     // North again when the next cycle starts
+    }
+
+    // Steer the engine for its next move. Call before every step().
+    public static void steer(GameEngine engine) {
+        long move = engine.getTick();
+        if (move == 0) {
+            return;  // The snake already starts heading north
+        }
+        byte turn = TURNS[(int) (move % CYCLE_TICKS)];
+        if (turn > 0) {
+            engine.turnLeft();
+        } else if (turn < 0) {
+            engine.turnRight();
+        }
+    }
+}
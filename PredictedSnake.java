@@ -0,0 +1,349 @@
+package Project;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Random;
+
+// Client-side prediction of the player's own snake in a networked game. The server is
+// authoritative but a round trip away, so turns are applied here at once and sent with
+// the tick they were applied at; the client runs a few ticks ahead of the server so they
+// usually arrive in time to be applied at that same tick.
+//
+// Only the head is predicted: its position and heading, which is all a turn changes. The
+// rest of the body, collisions and apples come from the server's snapshots. Turns follow
+// the server's TurnHold, at most one per cell, and each ACK carries the server's hold so
+// a replay holds turns exactly where the server did.
+//
+// Turns the server hasn't confirmed stay in a ring buffer. Each ACK carries the server's
+// state at some tick and how many turns it has applied; the prediction rewinds to that
+// state, drops the confirmed turns, and replays the rest up to the current tick. If a
+// turn reached the server late the replay lands somewhere else, and the jump is recorded
+// as a correction.
+//
+//   java -cp <classpath> Project.PredictedSnake --latency 80 --jitter 20 --ticks 1500
+//
+// runs a server, a LatencyProxy adding that one-way delay and jitter, and clients that
+// turn at random, then reports how far predictions were off and how big the corrections
+// were.
+public class PredictedSnake {
+    private static final int MAX_INPUTS = 256;
+    private static final int HISTORY = 1024; // Ticks of predicted head positions kept
+
+    private final ArenaConfig arena;
+    private final float cellSize;
+    private long tick; // Ticks run; the next step() runs tick number `tick`
+    private float headX;
+    private float headZ;
+    private float dirX;
+    private float dirZ;
+
+    // Unconfirmed turns, oldest first, by sequence number
+    private final long[] inputTicks = new long[MAX_INPUTS];
+    private final byte[] inputTurns = new byte[MAX_INPUTS];
+    private int firstInput; // Sequence number of the oldest unconfirmed turn
+    private int appliedInput; // First turn not yet applied locally
+    private int nextInput;
+    private long lastInputTick = Long.MIN_VALUE / 2; // Far enough back for any first turn
+    private final TurnHold hold = new TurnHold();
+
+    // Predicted head after each tick, to compare with the server's when it arrives
+    private final float[] historyX = new float[HISTORY];
+    private final float[] historyZ = new float[HISTORY];
+
+    // Distances in millionths of a unit, so they fit the histogram's long values
+    private final LatencyHistogram predictionErrors = new LatencyHistogram();
+    private final LatencyHistogram corrections = new LatencyHistogram();
+    private long respawns;
+
+    // Start from the server's state after `tick` ticks in the given arena; nextSeq is the
+    // sequence number the client's next turn will have.
+    public PredictedSnake(ArenaConfig arena, long tick, int nextSeq, TurnHold serverHold,
+                          float headX, float headZ, float dirX, float dirZ) {
+        this.arena = arena;
+        cellSize = arena.getCellSize();
+        this.tick = tick;
+        hold.set(serverHold.getLastTurnTick(), serverHold.getLastTurnCell());
+        firstInput = nextSeq;
+        appliedInput = nextSeq;
+        nextInput = nextSeq;
+        this.headX = headX;
+        this.headZ = headZ;
+        this.dirX = dirX;
+        this.dirZ = dirZ;
+        remember();
+    }
+
+    // Tick the next turn should be applied at: the next one to run, but at least a cell's
+    // worth of ticks after the last turn, since the server holds it until then anyway.
+    public long nextInputTick() {
+        return Math.max(tick, lastInputTick + TurnHold.ticksPerCell(cellSize));
+    }
+
+    // Record a turn sent to the server with the given sequence number and tick.
+    public void addInput(int seq, long inputTick, byte turn) {
+        if (seq != nextInput || nextInput - firstInput == MAX_INPUTS) {
+            throw new IllegalStateException("Turn " + seq + " out of order or too many unconfirmed");
+        }
+        inputTicks[seq % MAX_INPUTS] = inputTick;
+        inputTurns[seq % MAX_INPUTS] = turn;
+        nextInput++;
+        lastInputTick = inputTick;
+    }
+
+    // Run the next tick locally.
+    public void step() {
+        appliedInput = simulate(appliedInput);
+        tick++;
+        remember();
+    }
+
+    // Move the head one tick, applying the unconfirmed turn meant for this tick, if any,
+    // once the hold allows it. Turns are taken in order from fromInput on; returns the
+    // first one not yet applied.
+    private int simulate(int fromInput) {
+        int headCell = arena.cellOf(headX, headZ);
+        if (fromInput < nextInput && inputTicks[fromInput % MAX_INPUTS] <= tick
+                && hold.allows(tick, headCell, cellSize)) {
+            hold.turned(tick, headCell);
+            float x = dirX;
+            if (inputTurns[fromInput % MAX_INPUTS] == KeyboardController.TURN_LEFT) {
+                dirX = dirZ;
+                dirZ = -x;
+            } else {
+                dirX = -dirZ;
+                dirZ = x;
+            }
+            fromInput++;
+        }
+        headX += dirX;
+        headZ += dirZ;
+        return fromInput;
+    }
+
+    private void remember() {
+        historyX[(int) (tick % HISTORY)] = headX;
+        historyZ[(int) (tick % HISTORY)] = headZ;
+    }
+
+    // The server's state after serverTick ticks, with its first `resolved` turns applied
+    // and its turn hold. Rewind to it and replay the unconfirmed turns up to the current
+    // tick.
+    public void reconcile(long serverTick, int resolved, boolean respawned, TurnHold serverHold,
+                          float serverX, float serverZ, float serverDirX, float serverDirZ) {
+        firstInput = Math.max(firstInput, Math.min(resolved, nextInput));
+        if (!respawned && serverTick <= tick && tick - serverTick < HISTORY) {
+            int slot = (int) (serverTick % HISTORY);
+            predictionErrors.record(distanceMicros(historyX[slot], historyZ[slot], serverX, serverZ));
+        }
+        if (serverTick > tick) {
+            tick = serverTick; // Fell behind the server; catch up rather than predict the past
+        }
+
+        float shownX = headX;
+        float shownZ = headZ;
+        long now = tick;
+        tick = serverTick;
+        headX = serverX;
+        headZ = serverZ;
+        dirX = serverDirX;
+        dirZ = serverDirZ;
+        hold.set(serverHold.getLastTurnTick(), serverHold.getLastTurnCell());
+        remember();
+        // Turns meant for ticks the server has already run arrive late; they are taken
+        // on the first replayed tick
+        int input = firstInput;
+        while (tick < now) {
+            input = simulate(input);
+            tick++;
+            remember();
+        }
+        appliedInput = input;
+
+        if (respawned) {
+            respawns++;
+        } else {
+            corrections.record(distanceMicros(shownX, shownZ, headX, headZ));
+        }
+    }
+
+    private static long distanceMicros(float x1, float z1, float x2, float z2) {
+        return Math.round(Math.hypot(x1 - x2, z1 - z2) * 1e6);
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public float getHeadX() {
+        return headX;
+    }
+
+    public float getHeadZ() {
+        return headZ;
+    }
+
+    public float getDirX() {
+        return dirX;
+    }
+
+    public float getDirZ() {
+        return dirZ;
+    }
+
+    // Turns sent but not yet confirmed by the server.
+    public int getUnconfirmedInputs() {
+        return nextInput - firstInput;
+    }
+
+    public LatencyHistogram getPredictionErrors() {
+        return predictionErrors;
+    }
+
+    public LatencyHistogram getCorrections() {
+        return corrections;
+    }
+
+    public long getRespawns() {
+        return respawns;
+    }
+
+    public static void main(String[] args) {
+        long latencyMillis = 50;
+        long jitterMillis = 10;
+        long runTicks = 1500;
+        int clientCount = 4;
+        int snakes = 8;
+        int turnEvery = 25;
+        long lead = -1;
+        long seed = 1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--latency":
+                    latencyMillis = Long.parseLong(args[++i]);
+                    break;
+                case "--jitter":
+                    jitterMillis = Long.parseLong(args[++i]);
+                    break;
+                case "--ticks":
+                    runTicks = Long.parseLong(args[++i]);
+                    break;
+                case "--clients":
+                    clientCount = Integer.parseInt(args[++i]);
+                    break;
+                case "--snakes":
+                    snakes = Integer.parseInt(args[++i]);
+                    break;
+                case "--turn-every":
+                    turnEvery = Integer.parseInt(args[++i]);
+                    break;
+                case "--lead":
+                    lead = Long.parseLong(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: PredictedSnake [--latency MS] [--jitter MS] [--ticks N] [--clients N] "
+                            + "[--snakes N] [--turn-every TICKS] [--lead TICKS] [--seed S]");
+                    System.exit(2);
+            }
+        }
+        // Run far enough ahead of the snapshots that a turn crosses both ways in time, with
+        // a couple of ticks to spare for scheduling on either end
+        long tickMillis = GameEngine.TICK_NANOS / 1_000_000;
+        if (lead < 0) {
+            lead = (2 * (latencyMillis + jitterMillis) + tickMillis - 1) / tickMillis + 2;
+        }
+
+        try {
+            GameServer server = new GameServer(ArenaConfig.fromSystemProperties(), Math.max(snakes, clientCount), 1,
+                    seed, GameEngine.TICK_NANOS, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            LatencyProxy proxy = new LatencyProxy(server.getAddress(),
+                    latencyMillis * 1_000_000, jitterMillis * 1_000_000, seed);
+            Thread serverThread = new Thread(server, "game-server");
+            Thread proxyThread = new Thread(proxy, "latency-proxy");
+            serverThread.start();
+            proxyThread.start();
+
+            Selector selector = Selector.open();
+            GameClient[] clients = new GameClient[clientCount];
+            long[] clockStartNanos = new long[clientCount];
+            long[] clockStartTicks = new long[clientCount];
+            for (int i = 0; i < clientCount; i++) {
+                clients[i] = GameClient.connect(proxy.getAddress());
+                clients[i].setPredicting(true);
+                clients[i].getChannel().register(selector, SelectionKey.OP_READ);
+            }
+
+            // Each client's prediction runs on its own clock, lead ticks ahead of the
+            // latest snapshot, turning at random. The clock is pulled forward whenever
+            // the snapshots show the server has gained on it.
+            Random random = new Random(seed);
+            while (server.getTicks() < runTicks) {
+                selector.select(1);
+                selector.selectedKeys().clear();
+                long now = System.nanoTime();
+                for (int i = 0; i < clientCount; i++) {
+                    GameClient client = clients[i];
+                    client.poll();
+                    PredictedSnake prediction = client.getPrediction();
+                    if (prediction == null) {
+                        continue;
+                    }
+                    if (clockStartNanos[i] == 0) {
+                        clockStartNanos[i] = now;
+                        clockStartTicks[i] = prediction.getTick() + lead;
+                    }
+                    long target = clockStartTicks[i] + (now - clockStartNanos[i]) / GameEngine.TICK_NANOS;
+                    long synced = client.getWorld().getTick() + lead;
+                    if (synced > target) {
+                        clockStartNanos[i] = now;
+                        clockStartTicks[i] = synced;
+                        target = synced;
+                    }
+                    while (prediction.getTick() < target) {
+                        if (random.nextInt(turnEvery) == 0) {
+                            client.turn(random.nextBoolean() ? KeyboardController.TURN_LEFT : KeyboardController.TURN_RIGHT);
+                        }
+                        prediction.step();
+                    }
+                    client.flushInputs();
+                }
+            }
+            server.stop();
+            proxy.stop();
+            serverThread.join();
+            proxyThread.join();
+            selector.close();
+
+            System.out.printf("%d ticks, %d ms one-way latency +/- %d ms jitter, client %d ticks ahead%n",
+                    server.getTicks(), latencyMillis, jitterMillis, lead);
+            float cellSize = ArenaConfig.fromSystemProperties().getCellSize();
+            for (int i = 0; i < clientCount; i++) {
+                PredictedSnake prediction = clients[i].getPrediction();
+                clients[i].close();
+                if (prediction == null) {
+                    System.out.printf("client %d: never synced%n", i);
+                    continue;
+                }
+                LatencyHistogram errors = prediction.getPredictionErrors();
+                LatencyHistogram corrections = prediction.getCorrections();
+                System.out.printf("client %d: %d acks, prediction error p50 %.3f p99 %.3f max %.3f cells, "
+                                + "correction p99 %.3f max %.3f cells, %d respawns%n",
+                        i, corrections.getCount(),
+                        errors.getPercentile(50) / 1e6 / cellSize, errors.getPercentile(99) / 1e6 / cellSize,
+                        errors.getMax() / 1e6 / cellSize,
+                        corrections.getPercentile(99) / 1e6 / cellSize, corrections.getMax() / 1e6 / cellSize,
+                        prediction.getRespawns());
+            }
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+            System.err.println("Prediction run failed");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package Project;
+
+import java.nio.ByteBuffer;
+
+// A client's copy of the server's arena: every snake as the cells it covers, and the
+// apples' cells, rebuilt from FULL and DELTA frames. Cells index the arena the same way
+// as OccupancyGrid.
+public class RemoteWorld {
+    private final ArenaConfig arena;
+    private final CellTrail[] trails;
+    private final int[] appleCells;
+    private long tick = -1;
+    private boolean synced; // Deltas mean nothing until a FULL frame has arrived
+
+    public RemoteWorld(ArenaConfig arena, int snakes, int apples) {
+        this.arena = arena;
+        trails = new CellTrail[snakes];
+        for (int i = 0; i < snakes; i++) {
+            trails[i] = new CellTrail(0);
+        }
+        appleCells = new int[apples];
+    }
+
+    // Apply a FULL or DELTA payload, positioned just after the type byte.
+    public void apply(byte type, ByteBuffer frame) {
+        if (type == NetProtocol.FULL) {
+            applyFull(frame);
+        } else if (type == NetProtocol.DELTA && synced) {
+            applyDelta(frame);
+        }
+    }
+
+    private void applyFull(ByteBuffer frame) {
+        tick = NetProtocol.getVarLong(frame);
+        for (CellTrail trail : trails) {
+            int length = NetProtocol.getVarInt(frame);
+            int cell = NetProtocol.getVarInt(frame);
+            trail.reset(cell);
+            for (int c = 1; c < length; c++) {
+                cell += NetProtocol.getSignedVarInt(frame);
+                trail.pushHead(cell);
+            }
+        }
+        for (int a = 0; a < appleCells.length; a++) {
+            appleCells[a] = NetProtocol.getVarInt(frame);
+        }
+        synced = true;
+    }
+
+    private void applyDelta(ByteBuffer frame) {
+        tick = NetProtocol.getVarLong(frame);
+        int snake = -1;
+        int gap;
+        while ((gap = NetProtocol.getVarInt(frame)) != 0) {
+            snake += gap;
+            CellTrail trail = trails[snake];
+            int flags = frame.get();
+            if ((flags & NetProtocol.DELTA_RESET) != 0) {
+                trail.reset(NetProtocol.getVarInt(frame));
+                continue;
+            }
+            if ((flags & NetProtocol.DELTA_HEAD) != 0) {
+                trail.pushHead(trail.getHeadCell() + NetProtocol.getSignedVarInt(frame));
+            }
+            if ((flags & NetProtocol.DELTA_TAIL) != 0) {
+                trail.removeTailCells(NetProtocol.getVarInt(frame));
+            }
+        }
+        int apple = -1;
+        while ((gap = NetProtocol.getVarInt(frame)) != 0) {
+            apple += gap;
+            appleCells[apple] = NetProtocol.getVarInt(frame);
+        }
+    }
+
+    public ArenaConfig getArena() {
+        return arena;
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    // Tick of the latest frame applied.
+    public long getTick() {
+        return tick;
+    }
+
+    public int getSnakeCount() {
+        return trails.length;
+    }
+
+    public CellTrail getTrail(int snake) {
+        return trails[snake];
+    }
+
+    public int getAppleCount() {
+        return appleCells.length;
+    }
+
+    public int getAppleCell(int apple) {
+        return appleCells[apple];
+    }
+}
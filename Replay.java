@@ -0,0 +1,172 @@
+package Project;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Everything needed to re-run a game exactly: the arena, the engine's RNG seed and start
+// state, and the tick of every turn. The simulation is deterministic given those, so nothing
+// else is stored. The result of the original game (length in ticks, apples, cause of
+// death) goes at the end so playback can check that it came out the same.
+//
+// File layout: "SNKR", version, arena, seed, start and apple positions, then each turn as a
+// varint of (ticks since the previous turn << 1 | direction), then the result. A game
+// with a hundred turns fits in a few hundred bytes.
+public class Replay {
+    public static final byte LEFT = 1;
+    public static final byte RIGHT = 0;
+
+    private static final int MAGIC = 0x534E4B52; // "SNKR"
+    private static final byte VERSION = 2; // 1 had no arena and always used the default
+
+    private final ArenaConfig arena;
+    private final long seed;
+    private final float startX;
+    private final float startZ;
+    private final float appleX;
+    private final float appleZ;
+    private long[] turnTicks = new long[64];
+    private byte[] turns = new byte[64];
+    private int turnCount;
+    private long endTick;
+    private int applesEaten;
+    private GameEngine.DeathCause deathCause = GameEngine.DeathCause.NONE;
+
+    public Replay(ArenaConfig arena, long seed, float startX, float startZ, float appleX, float appleZ) {
+        this.arena = arena;
+        this.seed = seed;
+        this.startX = startX;
+        this.startZ = startZ;
+        this.appleX = appleX;
+        this.appleZ = appleZ;
+    }
+
+    // A fresh engine in the recorded start state.
+    public GameEngine newEngine() {
+        return new GameEngine(arena, startX, startZ, appleX, appleZ, seed);
+    }
+
+    // Called by the engine for every turn while recording.
+    public void addTurn(long tick, byte direction) {
+        if (turnCount == turns.length) {
+            turnTicks = Arrays.copyOf(turnTicks, turnCount * 2);
+            turns = Arrays.copyOf(turns, turnCount * 2);
+        }
+        turnTicks[turnCount] = tick;
+        turns[turnCount] = direction;
+        turnCount++;
+    }
+
+    // Record how the game ended.
+    public void finish(GameEngine engine) {
+        endTick = engine.getTick();
+        applesEaten = engine.getApplesEaten();
+        deathCause = engine.getDeathCause();
+    }
+
+    public int getTurnCount() {
+        return turnCount;
+    }
+
+    public long getTurnTick(int index) {
+        return turnTicks[index];
+    }
+
+    public byte getTurn(int index) {
+        return turns[index];
+    }
+
+    public long getEndTick() {
+        return endTick;
+    }
+
+    public int getApplesEaten() {
+        return applesEaten;
+    }
+
+    public GameEngine.DeathCause getDeathCause() {
+        return deathCause;
+    }
+
+    public void write(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(arena.getCols());
+            out.writeInt(arena.getRows());
+            out.writeFloat(arena.getCellSize());
+            out.writeByte(arena.getLayout().ordinal());
+            out.writeLong(seed);
+            out.writeFloat(startX);
+            out.writeFloat(startZ);
+            out.writeFloat(appleX);
+            out.writeFloat(appleZ);
+            writeVarLong(out, turnCount);
+            long previous = 0;
+            for (int i = 0; i < turnCount; i++) {
+                writeVarLong(out, (turnTicks[i] - previous) << 1 | turns[i]);
+                previous = turnTicks[i];
+            }
+            writeVarLong(out, endTick);
+            writeVarLong(out, applesEaten);
+            out.writeByte(deathCause.ordinal());
+        }
+    }
+
+    public static Replay read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a replay file: " + file);
+            }
+            byte version = in.readByte();
+            ArenaConfig arena;
+            if (version == 1) {
+                arena = ArenaConfig.DEFAULT;
+            } else if (version == VERSION) {
+                arena = new ArenaConfig(in.readInt(), in.readInt(), in.readFloat(),
+                        ArenaConfig.Layout.values()[in.readByte()]);
+            } else {
+                throw new IOException("Unsupported replay version " + version + ": " + file);
+            }
+            Replay replay = new Replay(arena, in.readLong(), in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+            long count = readVarLong(in);
+            long tick = 0;
+            for (long i = 0; i < count; i++) {
+                long entry = readVarLong(in);
+                tick += entry >>> 1;
+                replay.addTurn(tick, (byte) (entry & 1));
+            }
+            replay.endTick = readVarLong(in);
+            replay.applesEaten = (int) readVarLong(in);
+            replay.deathCause = GameEngine.DeathCause.values()[in.readByte()];
+            return replay;
+        }
+    }
+
+    // Seven bits per byte, high bit set on all but the last.
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,101 @@
+package Project;
+
+import javax.swing.SwingUtilities;
+import java.io.File;
+import java.io.IOException;
+
+// Feeds a recorded game's turns back into an engine at the ticks they were made.
+//
+//   java -cp <classpath> Project.ReplayPlayer game.snkr --headless
+//   java -cp <classpath> Project.ReplayPlayer game.snkr --speed 4
+//
+// Headless playback runs the game flat out and checks the result against the recording;
+// otherwise the game is shown in the normal window at 1x, 4x or 16x speed with the
+// keyboard ignored.
+public class ReplayPlayer implements GameController {
+    private final Replay replay;
+    private int next;
+
+    public ReplayPlayer(Replay replay) {
+        this.replay = replay;
+    }
+
+    @Override
+    public void steer(GameEngine engine) {
+        long tick = engine.getTick();
+        while (next < replay.getTurnCount() && replay.getTurnTick(next) == tick) {
+            if (replay.getTurn(next) == Replay.LEFT) {
+                engine.turnLeft();
+            } else {
+                engine.turnRight();
+            }
+            next++;
+        }
+    }
+
+    // Re-run the whole game as fast as possible. Returns the engine in its final state.
+    public static GameEngine runHeadless(Replay replay) {
+        GameEngine engine = replay.newEngine();
+        engine.setController(new ReplayPlayer(replay));
+        while (!engine.isGameOver() && engine.getTick() < replay.getEndTick()) {
+            engine.step();
+        }
+        return engine;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: ReplayPlayer <file> [--headless] [--speed 1|4|16]");
+            System.exit(2);
+        }
+        boolean headless = false;
+        double speed = 1.0;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--headless":
+                    headless = true;
+                    break;
+                case "--speed":
+                    speed = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        Replay replay;
+        try {
+            replay = Replay.read(new File(args[0]));
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.err.println("Cannot read replay: " + args[0]);
+            System.exit(1);
+            return;
+        }
+
+        if (headless) {
+            long start = System.nanoTime();
+            GameEngine engine = runHeadless(replay);
+            long elapsed = System.nanoTime() - start;
+            boolean matches = engine.getTick() == replay.getEndTick()
+                    && engine.getApplesEaten() == replay.getApplesEaten()
+                    && engine.getDeathCause() == replay.getDeathCause();
+            System.out.printf("%d ticks in %.1f ms: %d apples, %s (recorded: %d ticks, %d apples, %s)%n",
+                    engine.getTick(), elapsed / 1e6, engine.getApplesEaten(), engine.getDeathCause(),
+                    replay.getEndTick(), replay.getApplesEaten(), replay.getDeathCause());
+            if (!matches) {
+                System.err.println("Replay diverged from the recorded game");
+                System.exit(1);
+            }
+            return;
+        }
+
+        double playbackSpeed = speed;
+        SwingUtilities.invokeLater(() -> {
+            MainApp app = new MainApp();
+            app.setVisible(true);
+            app.showReplay(replay, playbackSpeed);
+        });
+    }
+}
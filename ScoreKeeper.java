@@ -0,0 +1,21 @@
+package Project;
+
+// Scores a round: a fixed number of points per apple.
+public class ScoreKeeper implements AppleEatenListener {
+    public static final int POINTS_PER_APPLE = 10;
+
+    private int score;
+
+    @Override
+    public void appleEaten(AppleEatenEvent event) {
+        score += POINTS_PER_APPLE;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void reset() {
+        score = 0;
+    }
+}
@@ -0,0 +1,57 @@
+package Project;
+
+// One finished game as stored by ScoreStore.
+public class ScoreRecord {
+    private final long epochMillis;
+    private final String map;
+    private final String difficulty;
+    private final int score;
+    private final int length;
+    private final int apples;
+    private final long ticks;
+    private final int durationMillis;
+
+    public ScoreRecord(long epochMillis, String map, String difficulty,
+                       int score, int length, int apples, long ticks, int durationMillis) {
+        this.epochMillis = epochMillis;
+        this.map = map;
+        this.difficulty = difficulty;
+        this.score = score;
+        this.length = length;
+        this.apples = apples;
+        this.ticks = ticks;
+        this.durationMillis = durationMillis;
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    public String getMap() {
+        return map;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getApples() {
+        return apples;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public int getDurationMillis() {
+        return durationMillis;
+    }
+}
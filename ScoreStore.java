@@ -0,0 +1,224 @@
+package Project;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Append-only history of finished games in a memory-mapped file, with the top scores
+// per map and difficulty kept in memory. Loading and appending both run on the
+// "score-store" thread, so game over never waits on the disk; the EDT only reads the
+// in-memory index.
+//
+// Layout: a 32-byte header (magic, version, record count) followed by fixed 32-byte
+// records. A record is written in full before the count is bumped, so a crash mid-write
+// leaves the file as it was. The file is grown in doubling steps and mapped whole.
+public class ScoreStore {
+    public static final int TOP_N = 10;
+
+    // Record map ids index this table; append new maps, never reorder
+    private static final String[] MAPS = {"groundTexture", "oceanTexture"};
+    private static final String[] DIFFICULTIES = {"Easy", "Hard"};
+
+    private static final int MAGIC = 0x534E4B53; // "SNKS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int COUNT_OFFSET = 8;
+    private static final int RECORD_BYTES = 32;
+    private static final int INITIAL_RECORDS = 1024;
+    private static final Comparator<ScoreRecord> BY_SCORE = Comparator.comparingInt(ScoreRecord::getScore);
+
+    private final File file;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "score-store");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Writer thread only
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long count;
+
+    // Min-heap of the best TOP_N per map and difficulty, guarded by this
+    private final HashMap<Integer, PriorityQueue<ScoreRecord>> topScores = new HashMap<>();
+
+    public ScoreStore(File file) {
+        this.file = file;
+    }
+
+    // Map the file and build the index in the background. Returns immediately.
+    public void open() {
+        writer.execute(() -> {
+            try {
+                long start = System.nanoTime();
+                load();
+                GameLog.info("scores_loaded", "records", count, "ms", (System.nanoTime() - start) / 1_000_000);
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.err.println("Error opening score file: " + file);
+            }
+        });
+    }
+
+    // Queue a finished game for appending. Never blocks.
+    public void record(ScoreRecord record) {
+        addToIndex(record);
+        writer.execute(() -> {
+            if (channel == null) {
+                return; // open() failed
+            }
+            try {
+                append(record);
+            } catch (IOException e) {
+                e.printStackTrace();
+                System.err.println("Error writing score file: " + file);
+            }
+        });
+    }
+
+    // Best scores for a map and difficulty, highest first.
+    public synchronized List<ScoreRecord> getTopScores(String map, String difficulty) {
+        PriorityQueue<ScoreRecord> heap = topScores.get(key(map, difficulty));
+        List<ScoreRecord> result = heap == null ? new ArrayList<>() : new ArrayList<>(heap);
+        result.sort(BY_SCORE.reversed());
+        return result;
+    }
+
+    public synchronized int getBestScore(String map, String difficulty) {
+        int best = 0;
+        PriorityQueue<ScoreRecord> heap = topScores.get(key(map, difficulty));
+        if (heap != null) {
+            for (ScoreRecord record : heap) {
+                best = Math.max(best, record.getScore());
+            }
+        }
+        return best;
+    }
+
+    // Wait for queued writes to reach the file; used before exit and by tools.
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+            if (channel != null) {
+                buffer.force();
+                channel.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void load() throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size < HEADER_BYTES) {
+            remap(HEADER_BYTES + (long) INITIAL_RECORDS * RECORD_BYTES);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(COUNT_OFFSET, 0);
+            count = 0;
+            return;
+        }
+        remap(size);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            channel = null;
+            throw new IOException("Not a score file: " + file);
+        }
+        count = buffer.getLong(COUNT_OFFSET);
+
+        // Scan into per-key heaps locally, then publish them in one go
+        // Only records that make a top list are decoded into objects
+        HashMap<Integer, PriorityQueue<ScoreRecord>> loaded = new HashMap<>();
+        for (long i = 0; i < count; i++) {
+            int offset = (int) (HEADER_BYTES + i * RECORD_BYTES);
+            int score = buffer.getInt(offset + 12);
+            PriorityQueue<ScoreRecord> heap = loaded.computeIfAbsent(
+                    buffer.get(offset + 28) * DIFFICULTIES.length + buffer.get(offset + 29),
+                    k -> new PriorityQueue<>(BY_SCORE));
+            if (heap.size() < TOP_N || score > heap.peek().getScore()) {
+                offer(heap, readRecord(offset));
+            }
+        }
+        // Merge rather than replace, in case games finished while loading
+        synchronized (this) {
+            for (PriorityQueue<ScoreRecord> heap : loaded.values()) {
+                for (ScoreRecord record : heap) {
+                    addToIndex(record);
+                }
+            }
+        }
+    }
+
+    private void append(ScoreRecord record) throws IOException {
+        long end = HEADER_BYTES + (count + 1) * RECORD_BYTES;
+        if (end > buffer.capacity()) {
+            remap(Math.max(end, 2L * buffer.capacity()));
+        }
+        int offset = (int) (HEADER_BYTES + count * RECORD_BYTES);
+        buffer.putLong(offset, record.getEpochMillis());
+        buffer.putInt(offset + 8, (int) record.getTicks());
+        buffer.putInt(offset + 12, record.getScore());
+        buffer.putInt(offset + 16, record.getLength());
+        buffer.putInt(offset + 20, record.getApples());
+        buffer.putInt(offset + 24, record.getDurationMillis());
+        buffer.put(offset + 28, (byte) indexOf(MAPS, record.getMap()));
+        buffer.put(offset + 29, (byte) indexOf(DIFFICULTIES, record.getDifficulty()));
+        buffer.putShort(offset + 30, (short) 0);
+        count++;
+        buffer.putLong(COUNT_OFFSET, count);
+    }
+
+    private ScoreRecord readRecord(int offset) {
+        return new ScoreRecord(buffer.getLong(offset), MAPS[buffer.get(offset + 28)],
+                DIFFICULTIES[buffer.get(offset + 29)], buffer.getInt(offset + 12),
+                buffer.getInt(offset + 16), buffer.getInt(offset + 20),
+                buffer.getInt(offset + 8), buffer.getInt(offset + 24));
+    }
+
+    private void remap(long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Score file too large: " + file);
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private synchronized void addToIndex(ScoreRecord record) {
+        offer(topScores.computeIfAbsent(key(record.getMap(), record.getDifficulty()),
+                k -> new PriorityQueue<>(BY_SCORE)), record);
+    }
+
+    private static void offer(PriorityQueue<ScoreRecord> heap, ScoreRecord record) {
+        heap.add(record);
+        if (heap.size() > TOP_N) {
+            heap.poll();
+        }
+    }
+
+    private static int key(String map, String difficulty) {
+        return indexOf(MAPS, map) * DIFFICULTIES.length + indexOf(DIFFICULTIES, difficulty);
+    }
+
+    // Unknown names fall back to the first entry rather than corrupting the record
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,189 @@
+package Project;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Plays many independent headless games under the autopilot and summarises them, for
+// tuning the arena and the AI. Game i uses seed (--seed + i), so any single game can be
+// re-run on its own.
+//
+//   java -cp <classpath> Project.SelfPlayRunner --games 100000 --threads 8 --out games.csv
+//   java -cp <classpath> Project.MainApp --selfplay [same options]
+//
+// A fixed pool of worker threads claims game numbers from a shared counter, so memory
+// depends on the thread count and not on --games: each worker keeps one engine and one
+// PathfindingController and resets them between games. With --out every game becomes a
+// CSV row (game,seed,ticks,apples,length,death), written as it finishes.
+public class SelfPlayRunner {
+    private static final String CSV_HEADER = "game,seed,ticks,apples,length,death";
+
+    private final ArenaConfig arena;
+    private final long games;
+    private final long baseSeed;
+    private final long maxTicks;
+    private final Writer out; // null when rows aren't wanted
+    private final AtomicLong nextGame = new AtomicLong();
+
+    public SelfPlayRunner(ArenaConfig arena, long games, long baseSeed, long maxTicks, Writer out) {
+        this.arena = arena;
+        this.games = games;
+        this.baseSeed = baseSeed;
+        this.maxTicks = maxTicks;
+        this.out = out;
+    }
+
+    // Per-worker tallies, merged once every game is done
+    private static class Totals {
+        long games;
+        long ticks;
+        long apples;
+        long length;
+        final long[] deaths = new long[GameEngine.DeathCause.values().length];
+
+        void add(Totals other) {
+            games += other.games;
+            ticks += other.ticks;
+            apples += other.apples;
+            length += other.length;
+            for (int i = 0; i < deaths.length; i++) {
+                deaths[i] += other.deaths[i];
+            }
+        }
+    }
+
+    private class Worker implements Callable<Totals> {
+        @Override
+        public Totals call() throws IOException {
+            Totals totals = new Totals();
+            PathfindingController controller = new PathfindingController();
+            GameEngine engine = null;
+            StringBuilder row = new StringBuilder(64);
+            long game;
+            while ((game = nextGame.getAndIncrement()) < games) {
+                long seed = baseSeed + game;
+                if (engine == null) {
+                    engine = new GameEngine(arena, 0f, 0f, arena.getStartAppleX(), arena.getStartAppleZ(), seed);
+                    engine.setController(controller);
+                } else {
+                    engine.reset(0f, 0f, arena.getStartAppleX(), arena.getStartAppleZ(), seed);
+                    controller.reset();
+                }
+                while (!engine.isGameOver() && engine.getTick() < maxTicks) {
+                    engine.step();
+                }
+
+                totals.games++;
+                totals.ticks += engine.getTick();
+                totals.apples += engine.getApplesEaten();
+                totals.length += engine.getBody().length();
+                totals.deaths[engine.getDeathCause().ordinal()]++;
+                if (out != null) {
+                    row.setLength(0);
+                    row.append(game).append(',').append(seed).append(',').append(engine.getTick())
+                            .append(',').append(engine.getApplesEaten()).append(',')
+                            .append(engine.getBody().length()).append(',')
+                            .append(engine.getDeathCause()).append('\n');
+                    synchronized (out) {
+                        out.append(row);
+                    }
+                }
+            }
+            return totals;
+        }
+    }
+
+    // Play every game on the given number of threads and return the merged tallies.
+    private Totals run(int threads) throws Exception {
+        AtomicLong threadCount = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "self-play-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<Totals>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(new Worker()));
+            }
+            Totals totals = new Totals();
+            for (Future<Totals> result : results) {
+                totals.add(result.get());
+            }
+            return totals;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public static void main(String[] args) {
+        long games = 1000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        long maxTicks = 10_000_000L;
+        String outFile = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games":
+                    games = Long.parseLong(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--max-ticks":
+                    maxTicks = Long.parseLong(args[++i]);
+                    break;
+                case "--out":
+                    outFile = args[++i];
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Usage: SelfPlayRunner [--games N] [--threads N] [--seed S] [--max-ticks N] [--out file.csv]");
+                    System.exit(2);
+            }
+        }
+        // One game_over line per game would swamp the log unless a level was asked for
+        if (System.getProperty("snake.logLevel") == null) {
+            GameLog.setLevel(GameLog.Level.WARN);
+        }
+
+        Totals totals;
+        long start = System.nanoTime();
+        try (Writer out = outFile == null ? null : new BufferedWriter(new FileWriter(new File(outFile)), 1 << 16)) {
+            if (out != null) {
+                out.write(CSV_HEADER);
+                out.write('\n');
+            }
+            totals = new SelfPlayRunner(ArenaConfig.fromSystemProperties(), games, seed, maxTicks, out).run(threads);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.err.println("Self-play run failed");
+            System.exit(1);
+            return;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games on %d threads in %.2f s: %.1f games/sec, %.0f ticks/sec%n",
+                totals.games, threads, seconds, totals.games / seconds, totals.ticks / seconds);
+        System.out.printf("mean ticks %.0f, mean apples %.2f, mean length %.1f%n",
+                (double) totals.ticks / totals.games, (double) totals.apples / totals.games,
+                (double) totals.length / totals.games);
+        StringBuilder deaths = new StringBuilder("deaths");
+        for (GameEngine.DeathCause cause : GameEngine.DeathCause.values()) {
+            deaths.append("  ").append(cause).append(' ').append(totals.deaths[cause.ordinal()]);
+        }
+        System.out.println(deaths);
+    }
+}
@@ -5,125 +5,337 @@ import org.jogamp.java3d.utils.geometry.Box;
 import org.jogamp.java3d.utils.geometry.ColorCube;
 import org.jogamp.vecmath.*;
 
-import java.awt.AWTEvent;
-import java.awt.event.KeyEvent;
 import java.util.ArrayList;
 import java.util.Iterator;
 
 public class Snake {
     private TransformGroup snakeTG;
-    private ArrayList<TransformGroup> segments;
-    private Vector3f headPosition;
+    private GameEngine engine;
+    private SnakeBody body;
     private Vector3f direction;
     private final float FIXED_Y = -0.4f;
+
+    // Java3D mirror of the body: nodes[seq & mask] shows segment seq. Nodes of segments
+    // that drop off the tail are parked in spareNodes and reused for the next head.
+    private Segment[] nodes;
+    private Segment[] spareNodes;
+    private int spareCount;
+    private long viewHeadSeq;
+    private long viewTailSeq;
+    // Segments currently drawn at an interpolated position rather than their own
+    private long lerpHeadSeq;
+    private long lerpTailSeq;
+    private final Transform3D scratchT3d = new Transform3D();
+    private final Vector3f scratchPos = new Vector3f();
+
+    // The one cube every segment shows through a Link, so geometry, appearance and
+    // compile cost don't grow with the snake.
+    private SharedGroup segmentShape;
+
+    // Far from the camera a segment switches to a single flat quad on the cube's top face.
+    // Every segment has its own Switch, since LOD state inside a SharedGroup would be
+    // shared by every Link to it, but one SegmentLOD behavior sets them all from a
+    // single pass over the body each frame.
+    private static final float SEGMENT_HALF_SIZE = 0.1f;
+    private static final float LOD_DISTANCE = Float.parseFloat(System.getProperty("snake.lodDistance", "8"));
+    private SharedGroup segmentFarShape;
+
+    // Alternative body renderer: every segment in one by-reference geometry
+    private SnakeMesh mesh;
     
     public Snake(Vector3f startPosition) {
+        this(new GameEngine(startPosition.x, startPosition.z,
+                ArenaConfig.DEFAULT.getStartAppleX(), ArenaConfig.DEFAULT.getStartAppleZ()));
+    }
+
+    public Snake(GameEngine engine) {
+        this(engine, false);
+    }
+
+    // View over a simulation owned elsewhere; the engine is the source of truth and
+    // this class only mirrors its body into the scene graph. With useMesh the body is
+    // drawn as a single SnakeMesh instead of one TransformGroup per segment.
+    public Snake(GameEngine engine, boolean useMesh) {
         snakeTG = new TransformGroup();
         snakeTG.setCapability(TransformGroup.ALLOW_CHILDREN_WRITE);
         snakeTG.setCapability(TransformGroup.ALLOW_CHILDREN_EXTEND);
         
-        segments = new ArrayList<>();
-        headPosition = new Vector3f(startPosition);
-        headPosition.y = FIXED_Y;
-        direction = new Vector3f(0f, 0f, 0.01f);
+        this.engine = engine;
+        body = engine.getBody();
+        direction = new Vector3f(engine.getDirX(), 0f, engine.getDirZ());
+
+        // The body never leaves the arena, so the snake's bounds are fixed and moving a
+        // segment doesn't propagate a bounds update up the tree
+        ArenaConfig arena = engine.getArena();
+        float halfWidth = arena.getHalfWidth() + SEGMENT_HALF_SIZE;
+        float halfDepth = arena.getHalfDepth() + SEGMENT_HALF_SIZE;
+        snakeTG.setBounds(new BoundingBox(new Point3d(-halfWidth, FIXED_Y - SEGMENT_HALF_SIZE, -halfDepth),
+                new Point3d(halfWidth, FIXED_Y + SEGMENT_HALF_SIZE, halfDepth)));
+        snakeTG.setBoundsAutoCompute(false);
+
+        if (useMesh) {
+            mesh = new SnakeMesh(body, SEGMENT_HALF_SIZE, FIXED_Y, createGreenAppearance());
+            snakeTG.addChild(mesh.getShape());
+            return;
+        }
+
+        segmentShape = new SharedGroup();
+        segmentShape.addChild(createGreenCube(SEGMENT_HALF_SIZE));
+        segmentShape.compile();
+        segmentFarShape = new SharedGroup();
+        segmentFarShape.addChild(createGreenQuad(SEGMENT_HALF_SIZE));
+        segmentFarShape.compile();
         
-        TransformGroup headSegment = createSegment(headPosition);
-        segments.add(headSegment);
+        nodes = new Segment[body.capacity()];
+        spareNodes = new Segment[body.capacity()];
+        viewHeadSeq = body.getHeadSeq();
+        viewTailSeq = body.getTailSeq();
+        Segment headSegment = createSegment(body.getHeadX(), body.getHeadZ());
+        nodes[(int) viewHeadSeq & (nodes.length - 1)] = headSegment;
         snakeTG.addChild(headSegment);
+
+        // The LOD pass measures from the viewer in the snake's own coordinates
+        snakeTG.setCapability(Node.ALLOW_LOCAL_TO_VWORLD_READ);
+        SegmentLOD lod = new SegmentLOD();
+        lod.setSchedulingBounds(new BoundingSphere(new Point3d(), arena.getSceneRadius()));
+        snakeTG.addChild(lod);
     }
-    
-    private TransformGroup createSegment(Vector3f pos) {
-        TransformGroup segTG = new TransformGroup();
+
+    // A segment's TransformGroup, with the Switch under it and the child it shows.
+    private static final class Segment extends TransformGroup {
+        final Switch lodSwitch;
+        boolean far;
+
+        Segment(Switch lodSwitch) {
+            this.lodSwitch = lodSwitch;
+        }
+    }
+
+    private Segment createSegment(float x, float z) {
+        // Child 0 near, child 1 far. Reference the shared shapes instead of building
+        // geometry per segment.
+        Switch lodSwitch = new Switch(0);
+        lodSwitch.setCapability(Switch.ALLOW_SWITCH_WRITE);
+        lodSwitch.addChild(new Link(segmentShape));
+        lodSwitch.addChild(new Link(segmentFarShape));
+        // Fixed per-segment bounds for view frustum culling, never recomputed
+        lodSwitch.setBounds(new BoundingBox(
+                new Point3d(-SEGMENT_HALF_SIZE, -SEGMENT_HALF_SIZE, -SEGMENT_HALF_SIZE),
+                new Point3d(SEGMENT_HALF_SIZE, SEGMENT_HALF_SIZE, SEGMENT_HALF_SIZE)));
+        lodSwitch.setBoundsAutoCompute(false);
+
+        Segment segTG = new Segment(lodSwitch);
         segTG.setCapability(TransformGroup.ALLOW_TRANSFORM_WRITE);
-        Transform3D t3d = new Transform3D();
-        t3d.setTranslation(pos);
-        segTG.setTransform(t3d);
-        // Replace the ColorCube with a custom green cube.
-        segTG.addChild(createGreenCube(0.1f));
+        placeSegment(segTG, x, z);
+        segTG.addChild(lodSwitch);
         return segTG;
     }
 
+    // Distance LOD for the whole body. Java3D's DistanceLOD is one behavior per
+    // Switch, each woken and scheduled every frame, so the per-frame cost grew with
+    // the snake even when nothing changed. This one wakes once a frame, finds the
+    // viewer once, and walks the live segments from the body's own coordinates
+    // without reading the scene graph. A Switch is only written when its segment
+    // crosses LOD_DISTANCE.
+    private class SegmentLOD extends Behavior {
+        private final WakeupCondition everyFrame = new WakeupOnElapsedFrames(0);
+        private final Transform3D headToVworld = new Transform3D();
+        private final Transform3D vworldToSnake = new Transform3D();
+        private final Point3d eye = new Point3d();
+
+        @Override
+        public void initialize() {
+            wakeupOn(everyFrame);
+        }
+
+        @Override
+        public void processStimulus(Iterator<WakeupCriterion> criteria) {
+            View view = getView();
+            if (view != null) {
+                view.getUserHeadToVworld(headToVworld);
+                snakeTG.getLocalToVworld(vworldToSnake);
+                vworldToSnake.invert();
+                eye.set(0, 0, 0);
+                headToVworld.transform(eye);
+                vworldToSnake.transform(eye);
+                updateSwitches(eye.x, eye.y, eye.z);
+            }
+            wakeupOn(everyFrame);
+        }
+
+        private void updateSwitches(double eyeX, double eyeY, double eyeZ) {
+            double limitSquared = (double) LOD_DISTANCE * LOD_DISTANCE;
+            double dy = FIXED_Y - eyeY;
+            int mask = nodes.length - 1;
+            for (long seq = viewTailSeq; seq <= viewHeadSeq; seq++) {
+                Segment segment = nodes[(int) seq & mask];
+                double dx = body.getX(seq) - eyeX;
+                double dz = body.getZ(seq) - eyeZ;
+                boolean far = dx * dx + dy * dy + dz * dz > limitSquared;
+                if (far != segment.far) {
+                    segment.far = far;
+                    segment.lodSwitch.setWhichChild(far ? 1 : 0);
+                }
+            }
+        }
+    }
+
+    private void placeSegment(TransformGroup segTG, float x, float z) {
+        scratchPos.set(x, FIXED_Y, z);
+        scratchT3d.setTranslation(scratchPos);
+        segTG.setTransform(scratchT3d);
+    }
+
     private Node createGreenCube(float halfSize) {
         // Create a Box with the desired half extents and set its appearance to green.
+        // Box takes half extents (so 0.1f means the full cube is 0.2 units on a side).
+        Box box = new Box(halfSize, halfSize, halfSize, createGreenAppearance());
+        return box;
+    }
+
+    // The top face of a segment cube, for segments too far away for the sides to matter.
+    private Node createGreenQuad(float halfSize) {
+        QuadArray quad = new QuadArray(4, GeometryArray.COORDINATES);
+        quad.setCoordinates(0, new float[] {
+            -halfSize, halfSize,  halfSize,
+             halfSize, halfSize,  halfSize,
+             halfSize, halfSize, -halfSize,
+            -halfSize, halfSize, -halfSize
+        });
+        return new Shape3D(quad, createGreenAppearance());
+    }
+
+    private Appearance createGreenAppearance() {
         Appearance greenApp = new Appearance();
         ColoringAttributes ca = new ColoringAttributes(new Color3f(0f, 1f, 0f), ColoringAttributes.NICEST);
         greenApp.setColoringAttributes(ca);
-        // Box takes half extents (so 0.1f means the full cube is 0.2 units on a side).
-        Box box = new Box(halfSize, halfSize, halfSize, greenApp);
-        return box;
+        return greenApp;
     }
     
+    // Run one simulation tick and mirror the result.
     public void move() {
-        ArrayList<Vector3f> prevPositions = new ArrayList<>();
-        for (TransformGroup seg : segments) {
-            Transform3D t3d = new Transform3D();
-            seg.getTransform(t3d);
-            Vector3f pos = new Vector3f();
-            t3d.get(pos);
-            prevPositions.add(pos);
-        }
+        engine.step();
+        syncView();
+    }
 
-        // Update head position using the current direction
-        headPosition.add(direction);
-        headPosition.y = FIXED_Y;
+    public void addSegment() {
+        engine.grow(1);
+        syncView();
+        GameLog.debug("segment_added", "length", engine.getBody().length());
+    }
 
-        // Border collision check
-        if (headPosition.x < -5f || headPosition.x > 5f ||
-            headPosition.z < -5f || headPosition.z > 5f) {
-            System.out.println("Game Over: Snake hit the border!");
-            if (MainApp.instance != null) {
-                MainApp.instance.showGameOverScreen();
-            }
+    // Show the body exactly as of the latest tick.
+    public void syncView() {
+        syncView(1f);
+    }
+
+    // Bring the Java3D nodes in line with the body. Only segments that joined or left
+    // the body since the last sync are touched, so a single move costs one
+    // setTransform no matter how long the snake is.
+    //
+    // alpha places the display between the previous tick (0) and the latest one (1).
+    // From one tick to the next every inner segment takes its neighbour's place, so the
+    // only parts that visibly move are the two ends, and only those are interpolated.
+    public void syncView(float alpha) {
+        float headX = lerp(engine.getPrevHeadX(), body.getHeadX(), alpha);
+        float headZ = lerp(engine.getPrevHeadZ(), body.getHeadZ(), alpha);
+        float tailX = lerp(engine.getPrevTailX(), body.getTailX(), alpha);
+        float tailZ = lerp(engine.getPrevTailZ(), body.getTailZ(), alpha);
+        if (mesh != null) {
+            mesh.sync(headX, headZ, tailX, tailZ);
             return;
         }
+        if (nodes.length != body.capacity()) {
+            remapNodes();
+        }
+        int mask = nodes.length - 1;
+        long headSeq = body.getHeadSeq();
+        long tailSeq = body.getTailSeq();
+
+        // Segments that fell off the tail
+        long leaveEnd = Math.min(viewHeadSeq, tailSeq - 1);
+        for (long seq = viewTailSeq; seq <= leaveEnd; seq++) {
+            int slot = (int) seq & mask;
+            spareNodes[spareCount++] = nodes[slot];
+            nodes[slot] = null;
+        }
+        // Segments that joined at the head
+        for (long seq = Math.max(tailSeq, viewHeadSeq + 1); seq <= headSeq; seq++) {
+            showSegment(seq, mask);
+        }
+        // Segments that joined behind the old tail through growth
+        long growEnd = Math.min(headSeq, viewTailSeq - 1);
+        for (long seq = tailSeq; seq <= growEnd; seq++) {
+            showSegment(seq, mask);
+        }
 
-        // Update the head's position
-        Transform3D headT3d = new Transform3D();
-        headT3d.setTranslation(headPosition);
-        segments.get(0).setTransform(headT3d);
+        viewHeadSeq = headSeq;
+        viewTailSeq = tailSeq;
 
-        // Move the rest of the segments
-        for (int i = 1; i < segments.size(); i++) {
-            Transform3D segT3d = new Transform3D();
-            segT3d.setTranslation(prevPositions.get(i - 1));
-            segments.get(i).setTransform(segT3d);
+        // Last frame's ends go back to their own positions once they are inner segments
+        restoreSegment(lerpHeadSeq, mask);
+        restoreSegment(lerpTailSeq, mask);
+        placeSegment(nodes[(int) tailSeq & mask], tailX, tailZ);
+        placeSegment(nodes[(int) headSeq & mask], headX, headZ);
+        lerpHeadSeq = headSeq;
+        lerpTailSeq = tailSeq;
+    }
+
+    private void restoreSegment(long seq, int mask) {
+        if (seq > viewTailSeq && seq < viewHeadSeq) {
+            placeSegment(nodes[(int) seq & mask], body.getX(seq), body.getZ(seq));
         }
     }
 
-    
-    
-    public void addSegment() {
-        Transform3D tailT3d = new Transform3D();
-        segments.get(segments.size() - 1).getTransform(tailT3d);
-        Vector3f tailPos = new Vector3f();
-        tailT3d.get(tailPos);
-        TransformGroup newSegment = createSegment(new Vector3f(tailPos));
-        segments.add(newSegment);
-        BranchGroup bg = new BranchGroup();
-        bg.setCapability(BranchGroup.ALLOW_CHILDREN_WRITE);
-        bg.setCapability(BranchGroup.ALLOW_CHILDREN_EXTEND);
-        bg.addChild(newSegment);
-        snakeTG.addChild(bg);
-        System.out.println("New snake segment added!");
+    private static float lerp(float from, float to, float alpha) {
+        return from + (to - from) * alpha;
+    }
+
+    private void showSegment(long seq, int mask) {
+        float x = body.getX(seq);
+        float z = body.getZ(seq);
+        Segment segTG;
+        if (spareCount > 0) {
+            segTG = spareNodes[--spareCount];
+            spareNodes[spareCount] = null;
+            placeSegment(segTG, x, z);
+        } else {
+            segTG = createSegment(x, z);
+            BranchGroup bg = new BranchGroup();
+            bg.setCapability(BranchGroup.ALLOW_CHILDREN_WRITE);
+            bg.setCapability(BranchGroup.ALLOW_CHILDREN_EXTEND);
+            bg.addChild(segTG);
+            snakeTG.addChild(bg);
+        }
+        nodes[(int) seq & mask] = segTG;
+    }
+
+    // The body doubled its capacity; re-key the nodes under the new mask.
+    private void remapNodes() {
+        int oldMask = nodes.length - 1;
+        Segment[] newNodes = new Segment[body.capacity()];
+        int newMask = newNodes.length - 1;
+        for (long seq = viewTailSeq; seq <= viewHeadSeq; seq++) {
+            newNodes[(int) seq & newMask] = nodes[(int) seq & oldMask];
+        }
+        nodes = newNodes;
+        Segment[] newSpare = new Segment[newNodes.length];
+        System.arraycopy(spareNodes, 0, newSpare, 0, spareCount);
+        spareNodes = newSpare;
     }
     
     public void turnLeft() {
-        // Rotate the direction vector 90 degrees counterclockwise (left)
-        Transform3D rot = new Transform3D();
-        rot.rotY(Math.toRadians(90));  // Rotate 90 degrees counterclockwise
-        rot.transform(direction);
-        System.out.println("Turn left");
+        engine.turnLeft();
+        GameLog.debug("turn_left", "dirX", engine.getDirX(), "dirZ", engine.getDirZ());
     }
 
     public void turnRight() {
-        // Rotate the direction vector 90 degrees clockwise (right)
-        Transform3D rot = new Transform3D();
-        rot.rotY(Math.toRadians(-90));  // Rotate 90 degrees clockwise
-        rot.transform(direction);
-        System.out.println("Turn right");
+        engine.turnRight();
+        GameLog.debug("turn_right", "dirX", engine.getDirX(), "dirZ", engine.getDirZ());
     }
 
     public Vector3f getDirection() {
+        direction.set(engine.getDirX(), 0f, engine.getDirZ());
         return direction;
     }
     
@@ -132,41 +344,14 @@ public class Snake {
     }
     
     public Vector3f getHeadPosition() {
-        Transform3D headT3d = new Transform3D();
-        segments.get(0).getTransform(headT3d);
-        Vector3f pos = new Vector3f();
-        headT3d.get(pos);
-        return pos;
+        return new Vector3f(body.getHeadX(), FIXED_Y, body.getHeadZ());
     }
-    
-    public class SnakeBehavior extends Behavior {
-        private WakeupCondition wakeupCondition;
-        
-        @Override
-        public void initialize() {
-            wakeupCondition = new WakeupOnAWTEvent(KeyEvent.KEY_PRESSED);
-            wakeupOn(wakeupCondition);
-        }
-        
-        @Override
-        public void processStimulus(Iterator<WakeupCriterion> criteria) {
-            while (criteria.hasNext()) {
-                WakeupCriterion wc = criteria.next();
-                if (wc instanceof WakeupOnAWTEvent) {
-                    AWTEvent[] events = ((WakeupOnAWTEvent) wc).getAWTEvent();
-                    for (AWTEvent event : events) {
-                        if (event instanceof KeyEvent) {
-                            KeyEvent ke = (KeyEvent) event;
-                            if (ke.getKeyCode() == KeyEvent.VK_LEFT) {
-                                turnLeft();
-                            } else if (ke.getKeyCode() == KeyEvent.VK_RIGHT) {
-                                turnRight();
-                            }
-                        }
-                    }
-                }
-            }
-            wakeupOn(wakeupCondition);
-        }
+
+    public SnakeBody getBody() {
+        return body;
+    }
+
+    public GameEngine getEngine() {
+        return engine;
     }
 }
@@ -0,0 +1,114 @@
+package Project;
+
+// Authoritative model of the snake's body, stored as a ring buffer of x/z floats.
+// Every segment is addressed by a sequence number: the head has the highest one and
+// the tail the lowest, and a sequence lives in slot (seq & mask) for as long as it is
+// part of the body. A move writes one new head slot and drops the tail slot, so the
+// steady state touches O(1) memory and allocates nothing.
+public class SnakeBody {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private float[] xs;
+    private float[] zs;
+    private int mask;
+    private long headSeq;
+    private long tailSeq;
+
+    public SnakeBody(float startX, float startZ) {
+        xs = new float[INITIAL_CAPACITY];
+        zs = new float[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+        reset(startX, startZ);
+    }
+
+    // Shrink back to a single head segment at the given position, keeping the arrays.
+    public void reset(float startX, float startZ) {
+        headSeq = 0;
+        tailSeq = 0;
+        xs[0] = startX;
+        zs[0] = startZ;
+    }
+
+    // Advance the head by (dx, dz). The old tail slot is released.
+    public void move(float dx, float dz) {
+        int oldHead = (int) headSeq & mask;
+        float nx = xs[oldHead] + dx;
+        float nz = zs[oldHead] + dz;
+        headSeq++;
+        tailSeq++;
+        int slot = (int) headSeq & mask;
+        xs[slot] = nx;
+        zs[slot] = nz;
+    }
+
+    // Add a segment behind the tail, on top of the current tail position.
+    public void grow() {
+        if (length() == xs.length) {
+            ensureCapacity(xs.length << 1);
+        }
+        int oldTail = (int) tailSeq & mask;
+        tailSeq--;
+        int slot = (int) tailSeq & mask;
+        xs[slot] = xs[oldTail];
+        zs[slot] = zs[oldTail];
+    }
+
+    // Grow the backing arrays to at least minCapacity (rounded up to a power of two).
+    // Every live sequence keeps the slot (seq & mask) under the new mask.
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity <= xs.length) {
+            return;
+        }
+        int newCapacity = Integer.highestOneBit(minCapacity - 1) << 1;
+        float[] newXs = new float[newCapacity];
+        float[] newZs = new float[newCapacity];
+        int newMask = newCapacity - 1;
+        for (long seq = tailSeq; seq <= headSeq; seq++) {
+            newXs[(int) seq & newMask] = xs[(int) seq & mask];
+            newZs[(int) seq & newMask] = zs[(int) seq & mask];
+        }
+        xs = newXs;
+        zs = newZs;
+        mask = newMask;
+    }
+
+    public int length() {
+        return (int) (headSeq - tailSeq + 1);
+    }
+
+    public int capacity() {
+        return xs.length;
+    }
+
+    public long getHeadSeq() {
+        return headSeq;
+    }
+
+    public long getTailSeq() {
+        return tailSeq;
+    }
+
+    public float getX(long seq) {
+        return xs[(int) seq & mask];
+    }
+
+    public float getZ(long seq) {
+        return zs[(int) seq & mask];
+    }
+
+    public float getHeadX() {
+        return xs[(int) headSeq & mask];
+    }
+
+    public float getHeadZ() {
+        return zs[(int) headSeq & mask];
+    }
+
+    public float getTailX() {
+        return xs[(int) tailSeq & mask];
+    }
+
+    public float getTailZ() {
+        return zs[(int) tailSeq & mask];
+    }
+}
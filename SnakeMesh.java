@@ -0,0 +1,144 @@
+package Project;
+
+import org.jogamp.java3d.*;
+
+import java.util.Arrays;
+
+// Draws the whole snake body as one by-reference TriangleArray, 36 vertices per segment
+// cube, so the renderer issues a single draw call however long the snake gets. Like the
+// per-node view in Snake, cube blocks are keyed by the segment's ring-buffer slot, so a
+// sync rewrites only the blocks of segments that joined or left since the last frame.
+public class SnakeMesh implements GeometryUpdater {
+    private static final int VERTS_PER_CUBE = 36;
+    private static final int FLOATS_PER_CUBE = VERTS_PER_CUBE * 3;
+
+    // Corner of each cube vertex, two counterclockwise triangles per face.
+    // Corner bits: 1 = +x, 2 = +y, 4 = +z.
+    private static final byte[] CUBE_CORNERS = {
+        1, 3, 7, 1, 7, 5,   4, 6, 2, 4, 2, 0,   // +x, -x
+        6, 7, 3, 6, 3, 2,   0, 1, 5, 0, 5, 4,   // +y, -y
+        4, 5, 7, 4, 7, 6,   2, 3, 1, 2, 1, 0    // +z, -z
+    };
+
+    private final SnakeBody body;
+    private final float halfSize;
+    private final float y;
+    private final Shape3D shape;
+    private TriangleArray geometry;
+    private float[] coords;
+    private long viewHeadSeq;
+    private long viewTailSeq;
+    // Interpolated end positions for this frame, and the segments drawn at them last frame
+    private float endHeadX;
+    private float endHeadZ;
+    private float endTailX;
+    private float endTailZ;
+    private long lerpHeadSeq;
+    private long lerpTailSeq;
+
+    public SnakeMesh(SnakeBody body, float halfSize, float y, Appearance appearance) {
+        this.body = body;
+        this.halfSize = halfSize;
+        this.y = y;
+        shape = new Shape3D();
+        shape.setCapability(Shape3D.ALLOW_GEOMETRY_WRITE);
+        shape.setAppearance(appearance);
+        rebuild();
+    }
+
+    public Shape3D getShape() {
+        return shape;
+    }
+
+    // Bring the vertex data in line with the body, drawing the head and tail cubes at
+    // the given interpolated positions (see Snake.syncView).
+    public void sync(float headX, float headZ, float tailX, float tailZ) {
+        if (coords.length != body.capacity() * FLOATS_PER_CUBE) {
+            rebuild();
+        } else if (viewHeadSeq != body.getHeadSeq() || viewTailSeq != body.getTailSeq()
+                || headX != endHeadX || headZ != endHeadZ || tailX != endTailX || tailZ != endTailZ) {
+            endHeadX = headX;
+            endHeadZ = headZ;
+            endTailX = tailX;
+            endTailZ = tailZ;
+            geometry.updateData(this);
+        }
+    }
+
+    // Called by Java3D from sync() while it is safe to write the referenced array.
+    @Override
+    public void updateData(Geometry geometry) {
+        int mask = body.capacity() - 1;
+        long headSeq = body.getHeadSeq();
+        long tailSeq = body.getTailSeq();
+
+        // Collapse cubes of segments that fell off the tail, unless a new head reuses the slot
+        long leaveEnd = Math.min(viewHeadSeq, tailSeq - 1);
+        for (long seq = viewTailSeq; seq <= leaveEnd; seq++) {
+            if (seq + body.capacity() > headSeq) {
+                clearCube((int) seq & mask);
+            }
+        }
+        // Segments that joined at the head
+        for (long seq = Math.max(tailSeq, viewHeadSeq + 1); seq <= headSeq; seq++) {
+            writeCube((int) seq & mask, body.getX(seq), body.getZ(seq));
+        }
+        // Segments that joined behind the old tail through growth
+        long growEnd = Math.min(headSeq, viewTailSeq - 1);
+        for (long seq = tailSeq; seq <= growEnd; seq++) {
+            writeCube((int) seq & mask, body.getX(seq), body.getZ(seq));
+        }
+
+        viewHeadSeq = headSeq;
+        viewTailSeq = tailSeq;
+
+        // Last frame's ends go back to their own positions once they are inner segments
+        if (lerpHeadSeq > tailSeq && lerpHeadSeq < headSeq) {
+            writeCube((int) lerpHeadSeq & mask, body.getX(lerpHeadSeq), body.getZ(lerpHeadSeq));
+        }
+        if (lerpTailSeq > tailSeq && lerpTailSeq < headSeq) {
+            writeCube((int) lerpTailSeq & mask, body.getX(lerpTailSeq), body.getZ(lerpTailSeq));
+        }
+        writeCube((int) tailSeq & mask, endTailX, endTailZ);
+        writeCube((int) headSeq & mask, endHeadX, endHeadZ);
+        lerpHeadSeq = headSeq;
+        lerpTailSeq = tailSeq;
+    }
+
+    // The body's capacity changed: size a new array for it and write every segment.
+    private void rebuild() {
+        int capacity = body.capacity();
+        coords = new float[capacity * FLOATS_PER_CUBE];
+        int mask = capacity - 1;
+        viewHeadSeq = body.getHeadSeq();
+        viewTailSeq = body.getTailSeq();
+        lerpHeadSeq = viewHeadSeq;
+        lerpTailSeq = viewTailSeq;
+        for (long seq = viewTailSeq; seq <= viewHeadSeq; seq++) {
+            writeCube((int) seq & mask, body.getX(seq), body.getZ(seq));
+        }
+
+        geometry = new TriangleArray(capacity * VERTS_PER_CUBE,
+                GeometryArray.COORDINATES | GeometryArray.BY_REFERENCE);
+        geometry.setCapability(GeometryArray.ALLOW_REF_DATA_READ);
+        geometry.setCapability(GeometryArray.ALLOW_REF_DATA_WRITE);
+        geometry.setCoordRefFloat(coords);
+        shape.setGeometry(geometry);
+    }
+
+    private void writeCube(int slot, float x, float z) {
+        int i = slot * FLOATS_PER_CUBE;
+        for (int v = 0; v < VERTS_PER_CUBE; v++) {
+            int corner = CUBE_CORNERS[v];
+            coords[i++] = x + ((corner & 1) != 0 ? halfSize : -halfSize);
+            coords[i++] = y + ((corner & 2) != 0 ? halfSize : -halfSize);
+            coords[i++] = z + ((corner & 4) != 0 ? halfSize : -halfSize);
+        }
+    }
+
+    // Degenerate triangles rasterize nothing.
+    private void clearCube(int slot) {
+        int start = slot * FLOATS_PER_CUBE;
+        Arrays.fill(coords, start, start + FLOATS_PER_CUBE, 0f);
+    }
+}
@@ -3,24 +3,57 @@ package Project;
 import org.jogamp.java3d.*;
 import org.jogamp.vecmath.Point3d;
 import java.util.Iterator;
+import javax.swing.SwingUtilities;
 
+// Drives the simulation from the Java3D side. It wakes once per rendered frame, hands
+// the real time that has passed to the engine, which decides how many fixed ticks to
+// run, and then has the snake view show the state part way between the last two ticks.
+// The simulation stays at 50 ticks a second while the snake moves smoothly at whatever
+// rate the display refreshes.
 public class SnakeMoveBehavior extends Behavior {
+    private GameEngine engine;
     private Snake snake;
+    private GameStats stats;
     private WakeupCondition wakeupCondition;
+    private long lastNanos;
+    private boolean gameOverShown = false;
     
-    public SnakeMoveBehavior(Snake snake) {
+    public SnakeMoveBehavior(GameEngine engine, Snake snake, GameStats stats) {
+        this.engine = engine;
         this.snake = snake;
+        this.stats = stats;
     }
     
     @Override
     public void initialize() {
-        wakeupCondition = new WakeupOnElapsedTime(20);
+        wakeupCondition = new WakeupOnElapsedFrames(0);
+        lastNanos = System.nanoTime();
         wakeupOn(wakeupCondition);
     }
     
     @Override
     public void processStimulus(Iterator<WakeupCriterion> criteria) {
-        snake.move();
+        long now = System.nanoTime();
+        advance(engine, stats, now - lastNanos);
+        lastNanos = now;
+        snake.syncView(engine.getAlpha());
+
+        if (engine.isGameOver() && !gameOverShown) {
+            gameOverShown = true;
+            if (MainApp.instance != null) {
+                SwingUtilities.invokeLater(() -> MainApp.instance.showGameOverScreen());
+            }
+        }
         wakeupOn(wakeupCondition);
     }
+
+    // The simulation half of a frame: run the ticks due and record their timings.
+    // Static and free of scene graph nodes so it can be exercised without a display.
+    static int advance(GameEngine engine, GameStats stats, long elapsedNanos) {
+        long start = System.nanoTime();
+        int ticks = engine.advance(elapsedNanos);
+        stats.ticksRun(ticks, System.nanoTime() - start);
+        stats.setSnakeLength(engine.getBody().length());
+        return ticks;
+    }
 }
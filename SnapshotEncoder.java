@@ -0,0 +1,162 @@
+package Project;
+
+import java.nio.ByteBuffer;
+
+// Server side of the snapshot stream: follows a MultiSnakeArena tick by tick, keeping a
+// CellTrail per snake, and writes FULL and DELTA frames (see NetProtocol). update() must
+// run after every tick, whether or not anyone is listening, or the trails fall behind.
+public class SnapshotEncoder {
+    private final MultiSnakeArena arena;
+    private final OccupancyGrid grid;
+    private final CellTrail[] trails;
+    private final int[] applesEaten; // As of the last update, to tell when a snake grew
+    private final int[] appleCells;
+    private ByteBuffer delta = ByteBuffer.allocate(4096);
+    private ByteBuffer full = ByteBuffer.allocate(4096);
+    private long fullTick = -1;
+
+    public SnapshotEncoder(MultiSnakeArena arena) {
+        this.arena = arena;
+        this.grid = arena.getGrid();
+        int snakes = arena.getSnakeCount();
+        trails = new CellTrail[snakes];
+        applesEaten = new int[snakes];
+        for (int i = 0; i < snakes; i++) {
+            SnakeBody body = arena.getBody(i);
+            CellTrail trail = new CellTrail(grid.cellOf(body.getTailX(), body.getTailZ()));
+            for (long seq = body.getTailSeq() + 1; seq <= body.getHeadSeq(); seq++) {
+                int cell = grid.cellOf(body.getX(seq), body.getZ(seq));
+                if (cell == trail.getHeadCell()) {
+                    trail.addHeadSegment();
+                } else {
+                    trail.pushHead(cell);
+                }
+            }
+            trails[i] = trail;
+            applesEaten[i] = arena.getApplesEaten(i);
+        }
+        appleCells = new int[arena.getAppleCount()];
+        for (int a = 0; a < appleCells.length; a++) {
+            appleCells[a] = appleCell(a);
+        }
+    }
+
+    // Catch up with the tick the arena just ran and encode it as a DELTA frame, returned
+    // flipped and ready to send. The buffer is reused by the next update.
+    public ByteBuffer update() {
+        delta.clear();
+        delta = NetProtocol.ensureRoom(delta, arena.getSnakeCount() * 16 + appleCells.length * 6 + 32);
+        int start = NetProtocol.beginFrame(delta, NetProtocol.DELTA);
+        NetProtocol.putVarLong(delta, arena.getTick());
+
+        int previous = -1;
+        for (int i = 0; i < trails.length; i++) {
+            CellTrail trail = trails[i];
+            int head = headCell(i);
+            MultiSnakeArena.Outcome outcome = arena.getOutcome(i);
+            if (outcome != MultiSnakeArena.Outcome.MOVE && outcome != MultiSnakeArena.Outcome.STAY) {
+                // Died and started over somewhere else as a single segment
+                trail.reset(head);
+                applesEaten[i] = arena.getApplesEaten(i);
+                NetProtocol.putVarInt(delta, i - previous);
+                delta.put((byte) NetProtocol.DELTA_RESET);
+                NetProtocol.putVarInt(delta, head);
+                previous = i;
+                continue;
+            }
+
+            // Same order as the arena: the head moves, the tail follows, then any growth
+            int step = head - trail.getHeadCell();
+            if (step != 0) {
+                trail.pushHead(head);
+            } else {
+                trail.addHeadSegment();
+            }
+            int dropped = trail.removeTailSegments(1);
+            int eaten = arena.getApplesEaten(i);
+            if (eaten != applesEaten[i]) {
+                trail.addTailSegments((eaten - applesEaten[i]) * GameEngine.GROWTH_PER_APPLE);
+                applesEaten[i] = eaten;
+            }
+            if (step == 0 && dropped == 0) {
+                continue;
+            }
+            NetProtocol.putVarInt(delta, i - previous);
+            delta.put((byte) ((step != 0 ? NetProtocol.DELTA_HEAD : 0) | (dropped != 0 ? NetProtocol.DELTA_TAIL : 0)));
+            if (step != 0) {
+                NetProtocol.putSignedVarInt(delta, step);
+            }
+            if (dropped != 0) {
+                NetProtocol.putVarInt(delta, dropped);
+            }
+            previous = i;
+        }
+        NetProtocol.putVarInt(delta, 0);
+
+        previous = -1;
+        for (int a = 0; a < appleCells.length; a++) {
+            int cell = appleCell(a);
+            if (cell != appleCells[a]) {
+                appleCells[a] = cell;
+                NetProtocol.putVarInt(delta, a - previous);
+                NetProtocol.putVarInt(delta, cell);
+                previous = a;
+            }
+        }
+        NetProtocol.putVarInt(delta, 0);
+        NetProtocol.endFrame(delta, start);
+        delta.flip();
+        return delta;
+    }
+
+    // The whole state as of the last update as a FULL frame, flipped and ready to send.
+    // Encoded at most once per tick however many clients join in it.
+    public ByteBuffer full() {
+        if (fullTick == arena.getTick()) {
+            full.rewind();
+            return full;
+        }
+        int cells = 0;
+        for (CellTrail trail : trails) {
+            cells += trail.length();
+        }
+        full.clear();
+        full = NetProtocol.ensureRoom(full, cells * 5 + trails.length * 5 + appleCells.length * 5 + 32);
+        int start = NetProtocol.beginFrame(full, NetProtocol.FULL);
+        NetProtocol.putVarLong(full, arena.getTick());
+        for (CellTrail trail : trails) {
+            NetProtocol.putVarInt(full, trail.length());
+            int previous = trail.getCell(0);
+            NetProtocol.putVarInt(full, previous);
+            for (int c = 1; c < trail.length(); c++) {
+                int cell = trail.getCell(c);
+                NetProtocol.putSignedVarInt(full, cell - previous);
+                previous = cell;
+            }
+        }
+        for (int cell : appleCells) {
+            NetProtocol.putVarInt(full, cell);
+        }
+        NetProtocol.endFrame(full, start);
+        full.flip();
+        fullTick = arena.getTick();
+        return full;
+    }
+
+    private int headCell(int snake) {
+        SnakeBody body = arena.getBody(snake);
+        return grid.cellOf(body.getHeadX(), body.getHeadZ());
+    }
+
+    private int appleCell(int apple) {
+        return grid.cellOf(arena.getAppleX(apple), arena.getAppleZ(apple));
+    }
+
+    public CellTrail getTrail(int snake) {
+        return trails[snake];
+    }
+
+    public int getAppleCell(int apple) {
+        return appleCells[apple];
+    }
+}
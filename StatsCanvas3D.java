@@ -0,0 +1,76 @@
+package Project;
+
+import org.jogamp.java3d.Canvas3D;
+import org.jogamp.java3d.J3DGraphics2D;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GraphicsConfiguration;
+
+// Canvas3D that times every frame through the renderer's callbacks and, when enabled
+// (F3, or -Dsnake.overlay=true), draws the GameStats numbers over the scene.
+public class StatsCanvas3D extends Canvas3D {
+    private static final long serialVersionUID = 1L;
+    private static final long OVERLAY_REFRESH_NANOS = 250_000_000L;
+    private static final Font OVERLAY_FONT = new Font(Font.MONOSPACED, Font.BOLD, 12);
+
+    private final GameStats stats;
+    private volatile boolean overlayVisible = Boolean.getBoolean("snake.overlay");
+    private long renderStartNanos;
+    // Overlay text is rebuilt a few times a second rather than every frame
+    private final String[] overlayLines = new String[7];
+    private long overlayUpdatedNanos;
+
+    public StatsCanvas3D(GraphicsConfiguration config, GameStats stats) {
+        super(config);
+        this.stats = stats;
+        java.util.Arrays.fill(overlayLines, "");
+    }
+
+    public void toggleOverlay() {
+        overlayVisible = !overlayVisible;
+    }
+
+    @Override
+    public void preRender() {
+        renderStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void postRender() {
+        if (!overlayVisible) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - overlayUpdatedNanos >= OVERLAY_REFRESH_NANOS) {
+            overlayUpdatedNanos = now;
+            overlayLines[0] = String.format("FPS %.1f   length %d", stats.getFramesPerSecond(), stats.getSnakeLength());
+            overlayLines[1] = String.format("frame  p50 %6.2f  p99 %6.2f  max %6.2f ms",
+                    stats.getFrameTimeP50Millis(), stats.getFrameTimeP99Millis(), stats.getFrameTimeMaxMillis());
+            overlayLines[2] = String.format("jitter p50 %6.2f  p99 %6.2f  max %6.2f ms",
+                    stats.getFrameJitterP50Millis(), stats.getFrameJitterP99Millis(), stats.getFrameJitterMaxMillis());
+            overlayLines[3] = String.format("render p50 %6.2f  p99 %6.2f  max %6.2f ms",
+                    stats.getRenderTimeP50Millis(), stats.getRenderTimeP99Millis(), stats.getRenderTimeMaxMillis());
+            overlayLines[4] = String.format("tick   p50 %6.3f  p99 %6.3f  max %6.3f ms",
+                    stats.getTickTimeP50Millis(), stats.getTickTimeP99Millis(), stats.getTickTimeMaxMillis());
+            overlayLines[5] = String.format("gc     %d pauses  p99 %6.2f  max %6.2f ms",
+                    stats.getGcPauseCount(), stats.getGcPauseP99Millis(), stats.getGcPauseMaxMillis());
+            overlayLines[6] = String.format("input  p50 %6.2f  p99 %6.2f  max %6.2f ms  rejected %d",
+                    stats.getInputLatencyP50Millis(), stats.getInputLatencyP99Millis(),
+                    stats.getInputLatencyMaxMillis(), stats.getRejectedInputs());
+        }
+
+        J3DGraphics2D g = getGraphics2D();
+        g.setFont(OVERLAY_FONT);
+        g.setColor(Color.YELLOW);
+        for (int i = 0; i < overlayLines.length; i++) {
+            g.drawString(overlayLines[i], 10, 20 + i * 15);
+        }
+        g.flush(false);
+    }
+
+    @Override
+    public void postSwap() {
+        stats.frameSwapped(renderStartNanos, System.nanoTime());
+    }
+}
@@ -0,0 +1,111 @@
+package Project;
+
+import org.jogamp.java3d.Texture;
+import org.jogamp.java3d.utils.image.TextureLoader;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Map textures keyed by map name. Each one is read, decoded and mipmapped once on a
+// background thread; later games reuse the same Texture with no disk I/O. When the
+// decoded textures outgrow the memory budget, the least recently used ones are dropped
+// and will be loaded again on demand.
+public class TextureCache {
+    private final long budgetBytes;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "texture-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Access-ordered, so iteration starts at the least recently used map
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    public TextureCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    // Start loading the given maps in the background. Returns immediately.
+    public synchronized void preload(String... names) {
+        for (String name : names) {
+            if (!entries.containsKey(name)) {
+                entries.put(name, new Entry(loader.submit(() -> load(name))));
+            }
+        }
+    }
+
+    // The texture for a map, waiting for its background load if it hasn't finished.
+    // Returns null if the map's file is missing or can't be decoded.
+    public Texture get(String name) {
+        Entry entry;
+        synchronized (this) {
+            preload(name);
+            entry = entries.get(name);
+        }
+        try {
+            return entry.texture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+            System.err.println("Error loading texture: " + name);
+            return null;
+        }
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    // Runs on the loader thread.
+    private Texture load(String name) {
+        String texturePath = "resources/" + name + ".jpg";
+        if (!new File(texturePath).exists()) {
+            System.err.println("Texture file not found: " + texturePath);
+            return null;
+        }
+        TextureLoader textureLoader = new TextureLoader(texturePath, TextureLoader.GENERATE_MIPMAP, null);
+        Texture texture = textureLoader.getTexture();
+        if (texture != null) {
+            // RGBA base level plus a third again for the mipmap chain
+            long bytes = (long) texture.getWidth() * texture.getHeight() * 4 * 4 / 3;
+            recordLoaded(name, bytes);
+        }
+        return texture;
+    }
+
+    private synchronized void recordLoaded(String name, long bytes) {
+        Entry loaded = entries.get(name);
+        if (loaded == null) {
+            return;
+        }
+        loaded.bytes = bytes;
+        usedBytes += bytes;
+
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (usedBytes > budgetBytes && it.hasNext()) {
+            Map.Entry<String, Entry> candidate = it.next();
+            if (candidate.getKey().equals(name) || !candidate.getValue().texture.isDone()) {
+                continue;
+            }
+            usedBytes -= candidate.getValue().bytes;
+            it.remove();
+        }
+    }
+
+    private static class Entry {
+        private final Future<Texture> texture;
+        private long bytes;
+
+        Entry(Future<Texture> texture) {
+            this.texture = texture;
+        }
+    }
+}
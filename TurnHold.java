@@ -0,0 +1,51 @@
+package Project;
+
+// The once-per-cell limit on player turns, shared by every path that applies them. After
+// a turn the next one is held until the head has travelled a cell's worth of ticks and
+// has also left the cell the last turn was taken in. The tick count alone isn't enough:
+// positions are sums of 0.01 steps, so a lane a cell over from the last one can land a
+// rounding error short of the boundary and read as the same column, and the snake then
+// dies on its own body. The cell test uses the same cellOf as the collision check, so a
+// turn that passes it always starts a new lane in a different column or row.
+public class TurnHold {
+    private long lastTurnTick;
+    private int lastTurnCell;
+
+    public TurnHold() {
+        reset();
+    }
+
+    // Forget the last turn, for a new game or a respawned snake.
+    public void reset() {
+        set(Long.MIN_VALUE / 2, -1);
+    }
+
+    // Take over the state of a hold kept elsewhere, such as the server's.
+    public void set(long lastTurnTick, int lastTurnCell) {
+        this.lastTurnTick = lastTurnTick;
+        this.lastTurnCell = lastTurnCell;
+    }
+
+    // Whether a turn may be taken at tick with the head in headCell.
+    public boolean allows(long tick, int headCell, float cellSize) {
+        return tick - lastTurnTick >= ticksPerCell(cellSize) && headCell != lastTurnCell;
+    }
+
+    // Record a turn taken at tick with the head in headCell.
+    public void turned(long tick, int headCell) {
+        set(tick, headCell);
+    }
+
+    public long getLastTurnTick() {
+        return lastTurnTick;
+    }
+
+    public int getLastTurnCell() {
+        return lastTurnCell;
+    }
+
+    // Ticks the head takes to cross one cell.
+    public static int ticksPerCell(float cellSize) {
+        return Math.round(cellSize / GameEngine.STEP);
+    }
+}
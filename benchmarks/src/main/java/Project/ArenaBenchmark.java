@@ -0,0 +1,41 @@
+package Project;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Cost of setting up an arena as it grows to 1000 x 1000 cells: the engine with its
+// occupancy grid and walls, and the ground and wall vertex data GamePanel uploads.
+// Java3D needs a display to create scene nodes, so the node wrapping itself (two
+// QuadArrays and two Shape3Ds, independent of size) is not measured here.
+// Memory per construction is the GC profiler's gc.alloc.rate.norm.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ArenaBenchmark {
+    @Param({"50", "250", "1000"})
+    public int cells;
+
+    @Param({"OPEN", "PILLARS"})
+    public ArenaConfig.Layout layout;
+
+    private ArenaConfig arena;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        arena = new ArenaConfig(cells, cells, ArenaConfig.DEFAULT.getCellSize(), layout);
+    }
+
+    @Benchmark
+    public GameEngine buildEngine() {
+        return new GameEngine(arena, 0f, 0f, arena.getStartAppleX(), arena.getStartAppleZ(), 42L);
+    }
+
+    @Benchmark
+    public ArenaGeometry buildGeometry() {
+        return new ArenaGeometry(arena);
+    }
+}
@@ -0,0 +1,48 @@
+package Project;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One MultiSnakeArena tick with thousands of LookaheadPilot snakes on a 1000 x 1000 cell
+// arena, split over 1 to 8 threads. Planning and moving the bodies run in parallel; the
+// head-to-head claims and the merge of grid counts and apples stay sequential, about a
+// quarter of a 4000-snake tick on one core, so the speedup levels off well short of the
+// thread count. Compare threads=1 with the others on a machine with at least that many
+// cores.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MultiSnakeBenchmark {
+    @Param({"1000", "4000"})
+    public int snakes;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private MultiSnakeArena arena;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ArenaConfig config = new ArenaConfig(1000, 1000, ArenaConfig.DEFAULT.getCellSize(), ArenaConfig.Layout.PILLARS);
+        arena = new MultiSnakeArena(config, snakes, snakes / 4, threads, 42L);
+        LookaheadPilot pilot = new LookaheadPilot(4);
+        for (int i = 0; i < snakes; i++) {
+            arena.setPilot(i, pilot);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        arena.close();
+    }
+
+    @Benchmark
+    public long tick() {
+        arena.tick();
+        return arena.getDeaths();
+    }
+}
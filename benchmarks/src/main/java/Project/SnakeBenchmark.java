@@ -0,0 +1,93 @@
+package Project;
+
+import org.jogamp.vecmath.Vector3f;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Hot paths of a game tick: moving the snake, the seven-segment growth burst when an
+// apple is eaten, reading the head position and the apple distance check.
+// The legacy* variants reproduce the original vecmath-based code for comparison.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnakeBenchmark {
+    private static final int BURST_RESET_LENGTH = 1 << 16;
+
+    @State(Scope.Thread)
+    public static class MoveState {
+        @Param({"1", "100", "1000", "10000"})
+        public int length;
+
+        public GameEngine engine;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            // Apple outside the arena, so the snake keeps the requested length
+            engine = new GameEngine(PatrolRoute.START_X, PatrolRoute.START_Z, 100f, 100f);
+            engine.grow(length - 1);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BodyState {
+        public GameEngine engine;
+        public SnakeBody growBody;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            engine = new GameEngine(0.5f, 0.5f, 2f, 1f);
+            growBody = new SnakeBody(0f, 0f);
+        }
+    }
+
+    @Benchmark
+    public void move(MoveState state) {
+        GameEngine engine = state.engine;
+        PatrolRoute.steer(engine);
+        engine.step();
+    }
+
+    @Benchmark
+    public void addSegmentBurst(BodyState state) {
+        SnakeBody body = state.growBody;
+        if (body.length() > BURST_RESET_LENGTH) {
+            body.reset(0f, 0f);
+        }
+        for (int i = 0; i < GameEngine.GROWTH_PER_APPLE; i++) {
+            body.grow();
+        }
+    }
+
+    @Benchmark
+    public void getHeadPosition(BodyState state, Blackhole bh) {
+        SnakeBody body = state.engine.getBody();
+        bh.consume(body.getHeadX());
+        bh.consume(body.getHeadZ());
+    }
+
+    @Benchmark
+    public boolean appleDistance(BodyState state) {
+        SnakeBody body = state.engine.getBody();
+        return state.engine.reachesApple(body.getHeadX(), body.getHeadZ());
+    }
+
+    @Benchmark
+    public Vector3f legacyGetHeadPosition(BodyState state) {
+        SnakeBody body = state.engine.getBody();
+        return new Vector3f(body.getHeadX(), -0.4f, body.getHeadZ());
+    }
+
+    @Benchmark
+    public boolean legacyAppleDistance(BodyState state) {
+        SnakeBody body = state.engine.getBody();
+        Vector3f headPos = new Vector3f(body.getHeadX(), -0.4f, body.getHeadZ());
+        Vector3f applePos = new Vector3f(state.engine.getAppleX(), -0.4f, state.engine.getAppleZ());
+        Vector3f diff = new Vector3f();
+        diff.sub(headPos, applePos);
+        return diff.length() < GameEngine.APPLE_EAT_DISTANCE;
+    }
+}
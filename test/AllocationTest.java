@@ -0,0 +1,120 @@
+package Project;
+
+import org.jogamp.java3d.Transform3D;
+import org.jogamp.vecmath.Point3d;
+import org.jogamp.vecmath.Vector3d;
+import org.jogamp.vecmath.Vector3f;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Canvas;
+import java.awt.event.KeyEvent;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Per-stimulus work of the behaviors must not allocate once warmed up: garbage made
+// every frame or key press turns into GC pauses mid-game. Each test warms its path
+// up, then checks the thread's allocated-bytes counter across many more calls. An
+// allocation in the path shows up in every window of calls; the JVM itself now and
+// then allocates on the thread once (a deoptimisation rebuilding an eliminated
+// object), so the quietest of a few windows is the one that must be zero.
+public class AllocationTest {
+    private static final int WARMUP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 10_000;
+    private static final int WINDOWS = 3;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    static void enableAllocationCounter() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported(), "JVM cannot count allocated bytes");
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static void assertNoAllocation(Runnable stimulus) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            stimulus.run();
+        }
+        long fewest = Long.MAX_VALUE;
+        for (int window = 0; window < WINDOWS && fewest > 0; window++) {
+            long before = allocatedBytes();
+            for (int i = 0; i < MEASURED_CALLS; i++) {
+                stimulus.run();
+            }
+            fewest = Math.min(fewest, allocatedBytes() - before);
+        }
+        assertEquals(0L, fewest, "bytes allocated over " + MEASURED_CALLS + " calls");
+    }
+
+    @Test
+    public void cameraKeyStepDoesNotAllocate() {
+        CameraRig rig = new CameraRig();
+        Transform3D camera = new Transform3D();
+        camera.lookAt(new Point3d(3, 3, 3), new Point3d(), new Vector3d(0, 1, 0));
+        camera.invert();
+        int[] keys = {KeyEvent.VK_W, KeyEvent.VK_A, KeyEvent.VK_S, KeyEvent.VK_D,
+                KeyEvent.VK_Z, KeyEvent.VK_X, KeyEvent.VK_Q};
+        int[] next = {0};
+        assertNoAllocation(() -> rig.keyStep(camera, keys[next[0]++ % keys.length]));
+    }
+
+    @Test
+    public void cameraFollowDoesNotAllocate() {
+        CameraRig rig = new CameraRig();
+        Transform3D view = new Transform3D();
+        Vector3f position = new Vector3f(0f, -0.4f, 0f);
+        Vector3f direction = new Vector3f(0f, 0f, 0.01f);
+        assertNoAllocation(() -> {
+            position.x += 0.01f;
+            direction.set(-direction.z, 0f, direction.x);
+            view.setIdentity();
+            rig.follow(position, direction, view);
+        });
+    }
+
+    @Test
+    public void keyboardSteerDoesNotAllocate() {
+        GameStats stats = new GameStats();
+        KeyboardController keyboard = new KeyboardController(stats);
+        GameEngine engine = new GameEngine(0f, 0f, 2f, 1f);
+        engine.setController(keyboard);
+        KeyEvent left = new KeyEvent(new Canvas(), KeyEvent.KEY_PRESSED, 0L, 0,
+                KeyEvent.VK_LEFT, KeyEvent.CHAR_UNDEFINED);
+        // A press every two cells keeps the head circling a small square near the start
+        long[] ticks = {0};
+        assertNoAllocation(() -> {
+            if (ticks[0]++ % 40 == 0) {
+                keyboard.keyPressed(left);
+            }
+            engine.step();
+        });
+        assertTrue(!engine.isGameOver(), "snake died while circling");
+    }
+
+    @Test
+    public void snakeMoveAdvanceDoesNotAllocate() {
+        GameStats stats = new GameStats();
+        GameEngine engine = new GameEngine(0f, 0f, 2f, 1f);
+        // Turn every cell so the head stays near the start for the whole run
+        engine.setController(new GameController() {
+            private long ticks;
+
+            @Override
+            public void steer(GameEngine engine) {
+                if (++ticks % 20 == 0) {
+                    engine.turnLeft();
+                }
+            }
+        });
+        // Roughly one 60 Hz frame against 50 Hz ticks, so now and then a frame runs none
+        assertNoAllocation(() -> SnakeMoveBehavior.advance(engine, stats, 16_666_667L));
+        assertTrue(!engine.isGameOver(), "snake died while circling");
+    }
+}
@@ -0,0 +1,50 @@
+package Project;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The first apple has to be somewhere the snake can reach. On small PILLARS arenas the
+// original spot, pulled into the spawn area, used to fall inside a pillar.
+public class ArenaConfigTest {
+    @Test
+    public void defaultArenaKeepsTheOriginalStartApple() {
+        assertEquals(2f, ArenaConfig.DEFAULT.getStartAppleX());
+        assertEquals(1f, ArenaConfig.DEFAULT.getStartAppleZ());
+    }
+
+    @Test
+    public void startAppleIsOpenOnSmallPillarArenas() {
+        for (int cols = ArenaConfig.MIN_CELLS; cols <= 40; cols++) {
+            for (int rows = ArenaConfig.MIN_CELLS; rows <= 40; rows += 7) {
+                ArenaConfig arena = new ArenaConfig(cols, rows, 0.2f, ArenaConfig.Layout.PILLARS);
+                String size = cols + "x" + rows;
+                float x = arena.getStartAppleX();
+                float z = arena.getStartAppleZ();
+                OccupancyGrid grid = OccupancyGrid.forArena(arena);
+                int cell = grid.cellOf(x, z);
+                assertFalse(grid.isWall(cell), "apple in a wall on " + size);
+                assertNotEquals(grid.cellOf(0f, 0f), cell, "apple on the snake on " + size);
+                assertTrue(Math.abs(x) <= arena.getSpawnHalfWidth() && Math.abs(z) <= arena.getSpawnHalfDepth(),
+                        "apple outside the spawn area on " + size);
+            }
+        }
+    }
+
+    @Test
+    public void autopilotEatsTheStartAppleOnSmallPillarArenas() {
+        for (int cells = ArenaConfig.MIN_CELLS; cells <= 30; cells++) {
+            ArenaConfig arena = new ArenaConfig(cells, cells, 0.2f, ArenaConfig.Layout.PILLARS);
+            GameEngine engine = new GameEngine(arena, 0f, 0f, arena.getStartAppleX(), arena.getStartAppleZ(), 1L);
+            engine.setController(new PathfindingController());
+            while (engine.getApplesEaten() == 0 && !engine.isGameOver() && engine.getTick() < 20_000) {
+                engine.step();
+            }
+            assertTrue(engine.getApplesEaten() > 0, "no apple eaten on " + cells + "x" + cells
+                    + " (" + engine.getDeathCause() + " at tick " + engine.getTick() + ")");
+        }
+    }
+}
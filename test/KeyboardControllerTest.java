@@ -0,0 +1,53 @@
+package Project;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Canvas;
+import java.awt.event.KeyEvent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+// Two quick presses the same way turn the snake back alongside its own body. The second
+// turn has to wait until the new lane is a column over in the grid, or the head runs on
+// into its body at the next cell crossing.
+public class KeyboardControllerTest {
+    private static final KeyEvent LEFT = new KeyEvent(new Canvas(), KeyEvent.KEY_PRESSED, 0L, 0,
+            KeyEvent.VK_LEFT, KeyEvent.CHAR_UNDEFINED);
+
+    private static void playDoubleLeft(float startX) {
+        GameEngine engine = new GameEngine(ArenaConfig.DEFAULT, startX, 0f, 4f, 4f, 1L);
+        KeyboardController keyboard = new KeyboardController(new GameStats());
+        engine.setController(keyboard);
+        engine.grow(60);
+        for (int i = 0; i < 200; i++) {
+            engine.step();
+        }
+        OccupancyGrid grid = engine.getGrid();
+        int bodyColumn = grid.cellOf(startX, 0f) % ArenaConfig.DEFAULT.getCols();
+
+        keyboard.keyPressed(LEFT);
+        keyboard.keyPressed(LEFT);
+        while (!engine.isGameOver() && engine.getTick() < 600) {
+            engine.step();
+        }
+
+        assertFalse(engine.isGameOver(), "died " + engine.getDeathCause() + " at tick " + engine.getTick());
+        assertEquals(-GameEngine.STEP, engine.getDirZ(), "the snake did not turn back");
+        SnakeBody body = engine.getBody();
+        int headColumn = grid.cellOf(body.getHeadX(), body.getHeadZ()) % ArenaConfig.DEFAULT.getCols();
+        assertNotEquals(bodyColumn, headColumn);
+    }
+
+    @Test
+    public void doubleLeftFromSpawnLaneSurvives() {
+        playDoubleLeft(0f);
+    }
+
+    @Test
+    public void doubleLeftFromOtherCellBoundariesSurvives() {
+        playDoubleLeft(-1f);
+        playDoubleLeft(2.2f);
+    }
+}
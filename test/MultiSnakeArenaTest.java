@@ -0,0 +1,107 @@
+package Project;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MultiSnakeArenaTest {
+    private static final ArenaConfig PILLARS = new ArenaConfig(60, 60, 0.2f, ArenaConfig.Layout.PILLARS);
+    private static final ArenaConfig SMALLEST = new ArenaConfig(ArenaConfig.MIN_CELLS, ArenaConfig.MIN_CELLS,
+            0.2f, ArenaConfig.Layout.OPEN);
+
+    // The smallest arena's spawn area is 2 x 2 cells; five apples can never fit.
+    @Test
+    public void tooManyApplesForTheSpawnAreaAreRejected() {
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                assertThrows(IllegalArgumentException.class, () -> new MultiSnakeArena(SMALLEST, 1, 5, 1, 1L)));
+    }
+
+    // Apple cells are taken as far as placement goes, so a spawn area holding nothing but
+    // apples has no free cell left and placement gives up instead of drawing forever.
+    @Test
+    public void reservedCellsAreNotFree() {
+        OccupancyGrid grid = OccupancyGrid.forArena(SMALLEST);
+        float spawnHalfWidth = SMALLEST.getSpawnHalfWidth();
+        float spawnHalfDepth = SMALLEST.getSpawnHalfDepth();
+        Random random = new Random(1L);
+        assertEquals(4, grid.countOpenCells(spawnHalfWidth, spawnHalfDepth));
+        for (int i = 0; i < 4; i++) {
+            int cell = grid.randomFreeCell(random, spawnHalfWidth, spawnHalfDepth);
+            assertTrue(cell >= 0 && !grid.isReserved(cell));
+            grid.reserve(cell);
+        }
+        assertEquals(-1, grid.randomFreeCell(random, spawnHalfWidth, spawnHalfDepth));
+        assertEquals(0, grid.getOccupiedCells(), "reserving a cell must not count as body");
+    }
+
+    // Eating releases the apple's cell and reserves the next one.
+    @Test
+    public void applesNeverShareACell() {
+        try (MultiSnakeArena arena = new MultiSnakeArena(SMALLEST, 1, 1, 1, 1L)) {
+            for (int i = 0; i < 5000; i++) {
+                arena.tick();
+                int apples = 0;
+                for (int cell = 0; cell < SMALLEST.getCols() * SMALLEST.getRows(); cell++) {
+                    assertEquals(arena.hasApple(cell), arena.getGrid().isReserved(cell));
+                    if (arena.hasApple(cell)) {
+                        apples++;
+                    }
+                }
+                assertEquals(1, apples, "apples on the board at tick " + arena.getTick());
+            }
+            assertTrue(arena.getApplesEaten(0) > 0, "the snake never ate");
+        }
+    }
+
+    // Bodies move in parallel and the grid catches up in the merge, so after every tick
+    // the grid must hold exactly the cells of the bodies, and any thread count must play
+    // the same game.
+    @Test
+    public void parallelMovesMatchOneThreadAndTheGrid() {
+        try (MultiSnakeArena one = new MultiSnakeArena(PILLARS, 400, 40, 1, 7L);
+             MultiSnakeArena four = new MultiSnakeArena(PILLARS, 400, 40, 4, 7L)) {
+            LookaheadPilot pilot = new LookaheadPilot(4);
+            for (int i = 0; i < 400; i++) {
+                one.setPilot(i, pilot);
+                four.setPilot(i, pilot);
+            }
+            for (int t = 0; t < 2000; t++) {
+                one.tick();
+                four.tick();
+                if (t % 100 == 0) {
+                    assertGridMatchesBodies(one);
+                }
+            }
+            assertEquals(one.getDeaths(), four.getDeaths());
+            for (int i = 0; i < 400; i++) {
+                SnakeBody a = one.getBody(i);
+                SnakeBody b = four.getBody(i);
+                assertEquals(a.length(), b.length(), "length of snake " + i);
+                assertEquals(a.getHeadX(), b.getHeadX(), "head of snake " + i);
+                assertEquals(a.getHeadZ(), b.getHeadZ(), "head of snake " + i);
+                assertEquals(one.getApplesEaten(i), four.getApplesEaten(i), "apples of snake " + i);
+            }
+            assertGridMatchesBodies(four);
+        }
+    }
+
+    private static void assertGridMatchesBodies(MultiSnakeArena arena) {
+        OccupancyGrid grid = arena.getGrid();
+        int[] expected = new int[arena.getArena().getCols() * arena.getArena().getRows()];
+        for (int i = 0; i < arena.getSnakeCount(); i++) {
+            SnakeBody body = arena.getBody(i);
+            for (long seq = body.getTailSeq(); seq <= body.getHeadSeq(); seq++) {
+                expected[grid.cellOf(body.getX(seq), body.getZ(seq))]++;
+            }
+        }
+        for (int cell = 0; cell < expected.length; cell++) {
+            assertEquals(expected[cell], grid.count(cell), "count of cell " + cell + " at tick " + arena.getTick());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package Project;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A networked player turning twice the same way must end up a lane over, not back in
+// its own body. The client spaces its turns a cell apart, and both it and the server hold
+// any turn that comes sooner, by the same TurnHold as the keyboard.
+public class PredictedSnakeTest {
+    private static final ArenaConfig ARENA = ArenaConfig.DEFAULT;
+
+    private static PredictedSnake headingUp(float x) {
+        return new PredictedSnake(ARENA, 200, 0, new TurnHold(), x, 0f, 0f, GameEngine.STEP);
+    }
+
+    private static void assertTurnedBack(PredictedSnake snake, float startX) {
+        for (int i = 0; i < 100; i++) {
+            snake.step();
+        }
+        assertEquals(-GameEngine.STEP, snake.getDirZ(), "the snake did not turn back");
+        int startColumn = ARENA.cellOf(startX, 0f) % ARENA.getCols();
+        int headColumn = ARENA.cellOf(snake.getHeadX(), snake.getHeadZ()) % ARENA.getCols();
+        assertNotEquals(startColumn, headColumn);
+    }
+
+    @Test
+    public void turnsAreScheduledACellApart() {
+        PredictedSnake snake = headingUp(0f);
+        long first = snake.nextInputTick();
+        snake.addInput(0, first, KeyboardController.TURN_LEFT);
+        long second = snake.nextInputTick();
+        snake.addInput(1, second, KeyboardController.TURN_LEFT);
+        assertTrue(second - first >= TurnHold.ticksPerCell(ARENA.getCellSize()),
+                "turns scheduled " + (second - first) + " ticks apart");
+        assertTurnedBack(snake, 0f);
+    }
+
+    // Turns sent for back-to-back ticks, as a client ignoring nextInputTick would, are
+    // held the way the server holds them.
+    @Test
+    public void turnsOneTickApartAreHeld() {
+        for (float x : new float[] {0f, -1f, 2.2f}) {
+            PredictedSnake snake = headingUp(x);
+            snake.addInput(0, 200, KeyboardController.TURN_LEFT);
+            snake.addInput(1, 201, KeyboardController.TURN_LEFT);
+            assertTurnedBack(snake, x);
+        }
+    }
+}